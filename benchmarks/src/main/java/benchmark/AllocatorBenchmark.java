@@ -0,0 +1,65 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import parser.FunctionParser;
+import parser.Parser;
+import regalloc.FunctionData;
+import regalloc.factory.AllocatorFactory;
+import regalloc.factory.GlobalAllocatorFactory;
+import regalloc.factory.IntraBlockAllocatorFactory;
+import regalloc.factory.NaiveAllocatorFactory;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AllocatorFactory.create and allocate() for every function of the program with the selected allocator
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AllocatorBenchmark {
+    @Param({"naive", "intra-block", "global"})
+    public String allocator;
+
+    private AllocatorFactory factory;
+    private List<FunctionData> functions;
+    private Map<String, Integer> staticArrays;
+    private Set<String> staticVariables;
+    private Set<String> floatVariables;
+
+    @Setup(Level.Trial)
+    public void parseFunctions(IrFixture fixture) throws IOException {
+        factory = switch (allocator) {
+            case "naive" -> new NaiveAllocatorFactory();
+            case "intra-block" -> new IntraBlockAllocatorFactory();
+            case "global" -> new GlobalAllocatorFactory();
+            default -> throw new IllegalArgumentException("unknown allocator: " + allocator);
+        };
+
+        Parser parser = new Parser(fixture.irFile.toString());
+        // same static tables the code generator hands to the allocators
+        staticArrays = parser.getStaticArrays();
+        staticVariables = new HashSet<>(parser.getStaticVariables());
+        staticVariables.addAll(staticArrays.keySet());
+        floatVariables = parser.getFloatVariables();
+
+        functions = new ArrayList<>();
+        List<String> functionLines;
+        while ((functionLines = parser.getNextFunction()) != null) {
+            functions.add(new FunctionParser(functionLines).getFunctionData());
+        }
+    }
+
+    @Benchmark
+    public void allocate(Blackhole blackhole) {
+        for (FunctionData data : functions) {
+            blackhole.consume(factory.create(data, staticArrays, staticVariables, floatVariables).allocate());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package benchmark;
+
+import codegen.CodeGenerator;
+import optimizer.PassManager;
+import org.openjdk.jmh.annotations.*;
+import parser.Parser;
+import regalloc.factory.AllocatorFactory;
+import regalloc.factory.GlobalAllocatorFactory;
+import regalloc.factory.IntraBlockAllocatorFactory;
+import regalloc.factory.NaiveAllocatorFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CodeGenerator.generateMips end to end on an already constructed parser: function parsing, allocation,
+ * instruction selection and rendering into a writer which discards the output
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodeGeneratorBenchmark {
+    @Param({"naive", "intra-block", "global"})
+    public String allocator;
+
+    private AllocatorFactory factory;
+    private Parser parser;
+
+    @Setup(Level.Trial)
+    public void createParser(IrFixture fixture) throws IOException {
+        factory = switch (allocator) {
+            case "naive" -> new NaiveAllocatorFactory();
+            case "intra-block" -> new IntraBlockAllocatorFactory();
+            case "global" -> new GlobalAllocatorFactory();
+            default -> throw new IllegalArgumentException("unknown allocator: " + allocator);
+        };
+        parser = new Parser(fixture.irFile.toString());
+    }
+
+    @Benchmark
+    public void generateMips() throws IOException {
+        parser.reset();
+        new CodeGenerator(parser, factory, 1, null, null, PassManager.forLevel(0)).generateMips(Writer.nullWriter());
+    }
+}
@@ -0,0 +1,42 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import parser.FunctionParser;
+import parser.Parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FunctionParser.getFunctionData over every function of the program, one operation parses the whole program
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FunctionParserBenchmark {
+    private List<List<String>> functions;
+
+    @Setup(Level.Trial)
+    public void readFunctions(IrFixture fixture) throws IOException {
+        Parser parser = new Parser(fixture.irFile.toString());
+        functions = new ArrayList<>();
+        List<String> functionLines;
+        while ((functionLines = parser.getNextFunction()) != null) {
+            // materialized, so the benchmark measures parsing and not decoding of the mapped file
+            functions.add(new ArrayList<>(functionLines));
+        }
+    }
+
+    @Benchmark
+    public void getFunctionData(Blackhole blackhole) {
+        for (List<String> functionLines : functions) {
+            blackhole.consume(new FunctionParser(functionLines).getFunctionData());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import util.IrGenerator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * IR file of parameterized size, written once per trial and shared by all benchmarks of the trial
+ */
+@State(Scope.Benchmark)
+public class IrFixture {
+    @Param({"10", "100"})
+    public int functionCount;
+
+    @Param({"100", "1000"})
+    public int instructionsPerFunction;
+
+    @Param({"0.2"})
+    public double floatRatio;
+
+    @Param({"0.1"})
+    public double branchDensity;
+
+    public Path irFile;
+
+    @Setup(Level.Trial)
+    public void writeIrFile() throws IOException {
+        irFile = Files.createTempFile("bench", ".ir");
+        try (Writer writer = Files.newBufferedWriter(irFile, StandardCharsets.US_ASCII)) {
+            new IrGenerator(functionCount, instructionsPerFunction, 16, 16, floatRatio, branchDensity, 42).generate(writer);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteIrFile() throws IOException {
+        Files.deleteIfExists(irFile);
+    }
+}
@@ -0,0 +1,23 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import parser.Parser;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parser construction: mapping the file, indexing its functions and reading the static variables
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Benchmark
+    public Parser construct(IrFixture fixture) throws IOException {
+        return new Parser(fixture.irFile.toString());
+    }
+}
@@ -0,0 +1,140 @@
+package cfg;
+
+import ir_instructions.IRInstruction;
+import ir_instructions.InstructionType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * basic blocks of a function and the edges between them
+ * blocks are index ranges [start, end) into the instruction list, the function name label at index 0 is not part of any block
+ * blocks are numbered in instruction order, so block 0 is the entry and block b + 1 is the fall through of block b
+ * everything is kept in flat int arrays, built in two linear passes over the instructions
+ */
+public class ControlFlowGraph {
+    private static final int NONE = -1;
+
+    private final List<IRInstruction> instructions;
+    private final int blockCount;
+    // blockStarts[b] is the first instruction of block b, blockStarts[blockCount] is the instruction count
+    private final int[] blockStarts;
+    // at most two successors per block: branch target and fall through
+    private final int[] successors;
+    private final int[] predecessorOffsets;
+    private final int[] predecessors;
+
+    public ControlFlowGraph(List<IRInstruction> instructions) {
+        this.instructions = instructions;
+        int size = instructions.size();
+
+        int[] starts = new int[size + 1];
+        Map<String, Integer> labelBlocks = new HashMap<>();
+        int count = 0;
+        for (int i = 1; i < size; i++) {
+            IRInstruction instruction = instructions.get(i);
+            if (i == 1 || instruction.getInstructionType() == InstructionType.LABEL || isControlTransfer(instructions.get(i - 1))) {
+                starts[count++] = i;
+            }
+            if (instruction.getInstructionType() == InstructionType.LABEL) {
+                labelBlocks.put(getLabelName(instruction), count - 1);
+            }
+        }
+        starts[count] = size;
+        blockCount = count;
+        blockStarts = Arrays.copyOf(starts, count + 1);
+
+        successors = new int[count * 2];
+        Arrays.fill(successors, NONE);
+        int[] predecessorCounts = new int[count + 1];
+        for (int block = 0; block < count; block++) {
+            IRInstruction terminator = instructions.get(blockStarts[block + 1] - 1);
+            int fallThrough = block + 1 < count ? block + 1 : NONE;
+            switch (terminator.getInstructionType()) {
+                case GOTO -> successors[block * 2] = labelBlocks.get(terminator.getArguments().get(0));
+                case BRANCH -> {
+                    successors[block * 2] = labelBlocks.get(terminator.getArguments().get(2));
+                    if (fallThrough != successors[block * 2]) successors[block * 2 + 1] = fallThrough;
+                }
+                case RETURN -> {
+                }
+                default -> successors[block * 2] = fallThrough;
+            }
+            for (int i = 0; i < 2; i++) {
+                if (successors[block * 2 + i] != NONE) predecessorCounts[successors[block * 2 + i] + 1]++;
+            }
+        }
+
+        predecessorOffsets = new int[count + 1];
+        for (int block = 0; block < count; block++) {
+            predecessorOffsets[block + 1] = predecessorOffsets[block] + predecessorCounts[block + 1];
+        }
+        predecessors = new int[predecessorOffsets[count]];
+        int[] filled = new int[count];
+        for (int block = 0; block < count; block++) {
+            for (int i = 0; i < 2; i++) {
+                int successor = successors[block * 2 + i];
+                if (successor != NONE) predecessors[predecessorOffsets[successor] + filled[successor]++] = block;
+            }
+        }
+    }
+
+    public List<IRInstruction> getInstructions() {
+        return instructions;
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * returns index of the first instruction of the block
+     */
+    public int getBlockStart(int block) {
+        return blockStarts[block];
+    }
+
+    /**
+     * returns index of the instruction after the last instruction of the block
+     */
+    public int getBlockEnd(int block) {
+        return blockStarts[block + 1];
+    }
+
+    public int getSuccessorCount(int block) {
+        if (successors[block * 2] == NONE) return 0;
+        return successors[block * 2 + 1] == NONE ? 1 : 2;
+    }
+
+    public int getSuccessor(int block, int i) {
+        return successors[block * 2 + i];
+    }
+
+    public int getPredecessorCount(int block) {
+        return predecessorOffsets[block + 1] - predecessorOffsets[block];
+    }
+
+    public int getPredecessor(int block, int i) {
+        return predecessors[predecessorOffsets[block] + i];
+    }
+
+    /**
+     * returns block containing the instruction, binary search over block starts
+     */
+    public int getBlock(int instructionIndex) {
+        int found = Arrays.binarySearch(blockStarts, 0, blockCount, instructionIndex);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    public static boolean isControlTransfer(IRInstruction instruction) {
+        InstructionType type = instruction.getInstructionType();
+        return type == InstructionType.BRANCH || type == InstructionType.GOTO || type == InstructionType.RETURN;
+    }
+
+    public static String getLabelName(IRInstruction instruction) {
+        String label = instruction.getOperation();
+        return label.substring(0, label.length() - 1);
+    }
+}
@@ -0,0 +1,113 @@
+package cfg;
+
+import java.util.Arrays;
+
+/**
+ * immediate dominators of the blocks of a control flow graph, block 0 is the root
+ * computed with the iterative algorithm of Cooper, Harvey and Kennedy over the reverse postorder,
+ * blocks not reachable from the entry have no dominator and dominate nothing
+ */
+public class DominatorTree {
+    private static final int NONE = -1;
+
+    private final ControlFlowGraph cfg;
+    private final int[] immediateDominators;
+    // position of every block in reverse postorder, NONE for unreachable blocks
+    private final int[] order;
+
+    public DominatorTree(ControlFlowGraph cfg) {
+        this.cfg = cfg;
+        int blockCount = cfg.getBlockCount();
+        immediateDominators = new int[blockCount];
+        order = new int[blockCount];
+        Arrays.fill(immediateDominators, NONE);
+        Arrays.fill(order, NONE);
+        if (blockCount == 0) return;
+
+        int[] reversePostorder = computeReversePostorder();
+        for (int i = 0; i < reversePostorder.length; i++) order[reversePostorder[i]] = i;
+
+        immediateDominators[0] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 1; i < reversePostorder.length; i++) {
+                int block = reversePostorder[i];
+                int dominator = NONE;
+                for (int p = 0; p < cfg.getPredecessorCount(block); p++) {
+                    int predecessor = cfg.getPredecessor(block, p);
+                    if (immediateDominators[predecessor] == NONE) continue;
+                    dominator = dominator == NONE ? predecessor : intersect(predecessor, dominator);
+                }
+                if (dominator != immediateDominators[block]) {
+                    immediateDominators[block] = dominator;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private int[] computeReversePostorder() {
+        int blockCount = cfg.getBlockCount();
+        int[] postorder = new int[blockCount];
+        int visited = 0;
+        boolean[] seen = new boolean[blockCount];
+        // explicit stack of blocks and the index of the next successor to visit
+        int[] stack = new int[blockCount];
+        int[] nextSuccessor = new int[blockCount];
+        int depth = 0;
+        stack[depth++] = 0;
+        seen[0] = true;
+        while (depth > 0) {
+            int block = stack[depth - 1];
+            if (nextSuccessor[block] < cfg.getSuccessorCount(block)) {
+                int successor = cfg.getSuccessor(block, nextSuccessor[block]++);
+                if (!seen[successor]) {
+                    seen[successor] = true;
+                    stack[depth++] = successor;
+                }
+            } else {
+                postorder[visited++] = block;
+                depth--;
+            }
+        }
+        int[] reversePostorder = new int[visited];
+        for (int i = 0; i < visited; i++) reversePostorder[i] = postorder[visited - 1 - i];
+        return reversePostorder;
+    }
+
+    private int intersect(int first, int second) {
+        while (first != second) {
+            while (order[first] > order[second]) first = immediateDominators[first];
+            while (order[second] > order[first]) second = immediateDominators[second];
+        }
+        return first;
+    }
+
+    public ControlFlowGraph getControlFlowGraph() {
+        return cfg;
+    }
+
+    public boolean isReachable(int block) {
+        return order[block] != NONE;
+    }
+
+    /**
+     * returns immediate dominator of the block, the entry for the entry and -1 for unreachable blocks
+     */
+    public int getImmediateDominator(int block) {
+        return immediateDominators[block];
+    }
+
+    /**
+     * returns whether every path from the entry to the second block passes the first one, a block dominates itself
+     */
+    public boolean dominates(int dominator, int block) {
+        if (!isReachable(dominator) || !isReachable(block)) return false;
+        while (block != dominator) {
+            if (block == 0) return false;
+            block = immediateDominators[block];
+        }
+        return true;
+    }
+}
@@ -0,0 +1,49 @@
+package cfg;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * renders control flow graphs in Graphviz dot format, one cluster per function
+ */
+public class GraphvizWriter {
+    private final List<String> lines;
+
+    public GraphvizWriter() {
+        lines = new ArrayList<>();
+        lines.add("digraph cfg {");
+        lines.add("\tnode [shape=box, fontname=\"monospace\"];");
+    }
+
+    public void addFunction(String functionName, ControlFlowGraph cfg) {
+        lines.add("\tsubgraph \"cluster_" + functionName + "\" {");
+        lines.add("\t\tlabel=\"" + escape(functionName) + "\";");
+        for (int block = 0; block < cfg.getBlockCount(); block++) {
+            StringBuilder label = new StringBuilder();
+            for (int i = cfg.getBlockStart(block); i < cfg.getBlockEnd(block); i++) {
+                label.append(escape(cfg.getInstructions().get(i).toIrString())).append("\\l");
+            }
+            lines.add("\t\t" + nodeName(functionName, block) + " [label=\"" + label + "\"];");
+        }
+        for (int block = 0; block < cfg.getBlockCount(); block++) {
+            for (int i = 0; i < cfg.getSuccessorCount(block); i++) {
+                lines.add("\t\t" + nodeName(functionName, block) + " -> " + nodeName(functionName, cfg.getSuccessor(block, i)) + ";");
+            }
+        }
+        lines.add("\t}");
+    }
+
+    public List<String> getLines() {
+        List<String> graph = new ArrayList<>(lines);
+        graph.add("}");
+        return graph;
+    }
+
+    private static String nodeName(String functionName, int block) {
+        return "\"" + escape(functionName) + "_B" + block + "\"";
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
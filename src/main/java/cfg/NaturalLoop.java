@@ -0,0 +1,81 @@
+package cfg;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * a loop of the control flow graph: the header and every block which reaches a back edge to it without passing the header
+ * back edges go from a block to a block dominating it, loops with the same header are merged into one
+ */
+public class NaturalLoop {
+    private final int header;
+    private final boolean[] blocks;
+    private int size;
+
+    private NaturalLoop(int header, int blockCount) {
+        this.header = header;
+        this.blocks = new boolean[blockCount];
+        blocks[header] = true;
+        size = 1;
+    }
+
+    /**
+     * returns natural loops of the graph, inner loops before the loops containing them
+     */
+    public static List<NaturalLoop> findLoops(DominatorTree dominators) {
+        ControlFlowGraph cfg = dominators.getControlFlowGraph();
+        NaturalLoop[] loopsByHeader = new NaturalLoop[cfg.getBlockCount()];
+        List<NaturalLoop> loops = new ArrayList<>();
+        for (int block = 0; block < cfg.getBlockCount(); block++) {
+            for (int s = 0; s < cfg.getSuccessorCount(block); s++) {
+                int header = cfg.getSuccessor(block, s);
+                if (!dominators.dominates(header, block)) continue;
+                if (loopsByHeader[header] == null) {
+                    loopsByHeader[header] = new NaturalLoop(header, cfg.getBlockCount());
+                    loops.add(loopsByHeader[header]);
+                }
+                loopsByHeader[header].addBackEdge(dominators, block);
+            }
+        }
+        // a loop nested in another one has fewer blocks
+        loops.sort(Comparator.comparingInt(NaturalLoop::getSize));
+        return loops;
+    }
+
+    private void addBackEdge(DominatorTree dominators, int latch) {
+        ControlFlowGraph cfg = dominators.getControlFlowGraph();
+        int[] worklist = new int[blocks.length];
+        int count = 0;
+        if (!blocks[latch]) {
+            blocks[latch] = true;
+            size++;
+            worklist[count++] = latch;
+        }
+        while (count > 0) {
+            int block = worklist[--count];
+            for (int p = 0; p < cfg.getPredecessorCount(block); p++) {
+                int predecessor = cfg.getPredecessor(block, p);
+                if (blocks[predecessor] || !dominators.isReachable(predecessor)) continue;
+                blocks[predecessor] = true;
+                size++;
+                worklist[count++] = predecessor;
+            }
+        }
+    }
+
+    public int getHeader() {
+        return header;
+    }
+
+    public boolean contains(int block) {
+        return blocks[block];
+    }
+
+    /**
+     * returns number of blocks in the loop
+     */
+    public int getSize() {
+        return size;
+    }
+}
@@ -1,91 +1,84 @@
 package codegen;
 
+import codegen.mips.MipsInstruction;
+import codegen.mips.MipsPrinter;
+import codegen.mips.Opcode;
+import codegen.mips.Register;
+import codegen.peephole.PeepholeOptimizer;
 import ir_instructions.IRInstruction;
+import ir_instructions.IROpcode;
 import ir_instructions.InstructionType;
+import ir_instructions.SymbolTable;
+import optimizer.PassManager;
 import parser.FunctionParser;
 import parser.Parser;
+import regalloc.BlockAllocation;
+import regalloc.CallingConvention;
 import regalloc.FunctionData;
 import regalloc.MemoryTable;
 import regalloc.allocator.Allocator;
 import regalloc.factory.AllocatorFactory;
+import stats.CompileStatistics;
+import stats.FunctionStatistics;
+import stats.Phase;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 public class CodeGenerator {
-    private final static List<String> mustSaveIntegerRegisters = List.of("$s0", "$s1", "$s2", "$s3", "$s4", "$s5", "$s6", "$s7", "$ra");
-    private final static List<String> tempIntegerRegisters = List.of("$t0", "$t1", "$t2", "$t3", "$t4", "$t5", "$t6", "$t7");
-    private final static List<String> argumentIntegerRegisters = List.of("$a0", "$a1", "$a2", "$a3");
-
-    private final static List<String> mustSaveFloatRegisters = List.of("$s20", "$s22", "$s24", "$s26", "$s28", "$s30", "$s32");
-    private final static List<String> tempFloatRegisters = List.of("$f4", "$f6", "$f8", "$f10", "$f14", "$f16");
-    private final static List<String> argumentFloatRegisters = List.of("$f12", "$f14");
-
-    // int registers
-    private final static String LOAD_CONSTANT_IN_REGISTER_TEMPLATE = "\tli %s, %s";
-    private final static String LOAD_VARIABLE_IN_REGISTER_TEMPLATE = "\tlw %s, %s(%s)";
-    private final static String STORE_VARIABLE_FROM_REGISTER_TEMPLATE = "\tsw %s, %s(%s)";
-    private final static String BRANCH_AND_ARITHMETIC_INSTRUCTION_TEMPLATE = "\t%s %s, %s, %s";
-    private final static String STATIC_VARIABLE_TEMPLATE = "\t%s: .space %d";
-    private final static String INCREASE_STACK_POINTER_TEMPLATE = "\taddi $sp, $sp, %d";
-    private final static String DECREASE_STACK_POINTER_TEMPLATE = "\taddi $sp, $sp, -%d";
-    private final static String GOTO_TEMPLATE = "\tj %s";
-    private final static String JAL_TEMPLATE = "\tjal %s";
-
-    private final static String REGISTER_TO_REGISTER_MOVE_TEMPLATE = "\tmove %s, %s";
-
-    // float register
-    private final static String LOAD_CONSTANT_IN_REGISTER_TEMPLATE_FLOAT = "\tli.s %s, %s";
-    private final static String LOAD_VARIABLE_IN_REGISTER_TEMPLATE_FLOAT = "\tl.s %s, %s(%s)";
-    private final static String STORE_VARIABLE_FROM_REGISTER_TEMPLATE_FLOAT = "\ts.s %s, %s(%s)";
-    private final static String REGISTER_TO_REGISTER_MOVE_TEMPLATE_FLOAT = "\tmov.s %s, %s";
-    private final static String MOVE_INT_REGISTER_TO_FLOAT_REGISTER = "\tmtc1 %s, %s";
-    private final static String CONVERT_INT_TO_FLOAT = "\tcvt.s.w %s, %s";
-    private static final String FLOAT_BRANCH_INSTRUCTION = "\t%s, %s, %s";
-    private final static String BRANCH_TRUE_FLOAT = "\tbc1t %s";
-    private final static String BRANCH_FALSE_FLOAT = "\tbc1f %s";
-
-
-    private final static String ZERO_REGISTER = "$zero";
-    private final static String SP_REGISTER = "$sp";
-    private final static String INTEGER_RETURN_REGISTER = "$v0";
-    private final static String FLOAT_RETURN_REGISTER = "$f0";
-
-    private final static Map<String, String> IrOpsToMipsForIntegers = new HashMap<>() {{
-        put("add", "add");
-        put("sub", "sub");
-        put("mult", "mul");
-        put("div", "div");
-        put("or", "or");
-        put("and", "and");
-    }};
-
-    private final static Map<String, String> IrOpsToMipsForFloats = new HashMap<>() {{
-        put("add", "add.s");
-        put("sub", "sub.s");
-        put("mult", "mul.s");
-        put("div", "div.s");
-    }};
-
-    private final static Map<String, String> IrBranchesToMipsForIntegers = new HashMap<>() {{
-        put("breq", "beq");
-        put("brneq", "bne");
-        put("brlt", "blt");
-        put("brgt", "bgt");
-        put("brleq", "ble");
-        put("brgeq", "bge");
-    }};
-
-    private final static Map<String, String> IrBranchesToMipsForFloats = new HashMap<>() {{
-        put("breq", "c.eq.s");
-        put("brlt", "c.le.s");
-        put("brleq", "c.lt.s");
-        // not supported
-        put("brneq", "c.eq.s");
-        put("brgt", "c.le.s");
-        put("brgeq", "c.lt.s");
-    }};
-
-    private final static Set<String> NotSupportedIrBranchesForFloats = new HashSet<>(List.of("brneq", "brgt", "brgeq"));
+    private final static List<Register> tempIntegerRegisters = List.of(Register.T0, Register.T1, Register.T2, Register.T3,
+            Register.T4, Register.T5, Register.T6, Register.T7);
+    private final static List<Register> argumentIntegerRegisters = List.of(Register.A0, Register.A1, Register.A2, Register.A3);
+
+    private final static List<Register> tempFloatRegisters = List.of(Register.F4, Register.F6, Register.F8, Register.F10,
+            Register.F14, Register.F16);
+    private final static List<Register> argumentFloatRegisters = List.of(Register.F12, Register.F14);
+
+    // whole array assignments with more elements are emitted as a loop instead of one store per element
+    private final static int ARRAY_LOOP_THRESHOLD = 16;
+
+    private final static Register INTEGER_RETURN_REGISTER = Register.V0;
+    private final static Register FLOAT_RETURN_REGISTER = Register.F0;
+
+    private final static Map<IROpcode, Opcode> IrOpsToMipsForIntegers = new EnumMap<>(Map.of(
+            IROpcode.ADD, Opcode.ADD,
+            IROpcode.SUB, Opcode.SUB,
+            IROpcode.MULT, Opcode.MUL,
+            IROpcode.DIV, Opcode.DIV,
+            IROpcode.OR, Opcode.OR,
+            IROpcode.AND, Opcode.AND));
+
+    private final static Map<IROpcode, Opcode> IrOpsToMipsForFloats = new EnumMap<>(Map.of(
+            IROpcode.ADD, Opcode.ADD_S,
+            IROpcode.SUB, Opcode.SUB_S,
+            IROpcode.MULT, Opcode.MUL_S,
+            IROpcode.DIV, Opcode.DIV_S));
+
+    private final static Map<IROpcode, Opcode> IrBranchesToMipsForIntegers = new EnumMap<>(Map.of(
+            IROpcode.BREQ, Opcode.BEQ,
+            IROpcode.BRNEQ, Opcode.BNE,
+            IROpcode.BRLT, Opcode.BLT,
+            IROpcode.BRGT, Opcode.BGT,
+            IROpcode.BRLEQ, Opcode.BLE,
+            IROpcode.BRGEQ, Opcode.BGE));
+
+    // brneq, brgt and brgeq are not supported, they branch when the negated condition is false
+    private final static Map<IROpcode, Opcode> IrBranchesToMipsForFloats = new EnumMap<>(Map.of(
+            IROpcode.BREQ, Opcode.C_EQ_S,
+            IROpcode.BRLT, Opcode.C_LT_S,
+            IROpcode.BRLEQ, Opcode.C_LE_S,
+            IROpcode.BRNEQ, Opcode.C_EQ_S,
+            IROpcode.BRGT, Opcode.C_LE_S,
+            IROpcode.BRGEQ, Opcode.C_LT_S));
+
+    private final static Set<IROpcode> NotSupportedIrBranchesForFloats = EnumSet.of(IROpcode.BRNEQ, IROpcode.BRGT, IROpcode.BRGEQ);
 
     private final static Map<String, String> libFunctionLabels = new HashMap<>() {{
         put("printi", "_lprinti");
@@ -97,297 +90,572 @@ public class CodeGenerator {
     private Set<String> staticVars;
     private Map<String, Integer> staticArrays;
     private Set<String> floats;
+    private Map<String, List<Boolean>> functionFloatParameters;
     private final Parser parser;
     private final AllocatorFactory allocatorFactory;
+    private final int threads;
+    private final CompileStatistics statistics;
+    private final PeepholeOptimizer peepholeOptimizer;
+    private final PassManager passManager;
+
+    private record CompiledFunction(List<MipsInstruction> instructions, FunctionStatistics statistics) {
+    }
+
+    /**
+     * what the address register holds after an array access with a variable index:
+     * the index times 4, plus $sp for stack arrays, so consecutive accesses with the same index reuse it
+     */
+    private static final class ArrayAddress {
+        private int indexId = SymbolTable.NO_SYMBOL;
+        private boolean stackRelative;
+
+        private boolean holds(int indexId, boolean stackRelative) {
+            return this.indexId != SymbolTable.NO_SYMBOL && this.indexId == indexId && this.stackRelative == stackRelative;
+        }
+
+        private void set(int indexId, boolean stackRelative) {
+            this.indexId = indexId;
+            this.stackRelative = stackRelative;
+        }
+
+        private void clear() {
+            indexId = SymbolTable.NO_SYMBOL;
+        }
+    }
 
-    public CodeGenerator(Parser parser, AllocatorFactory allocatorFactory) {
+    /**
+     * with more than one thread functions are parsed, allocated and generated concurrently
+     * output is still joined in source order, so it does not depend on the number of threads
+     * statistics of every function are added to the given statistics in output order, null disables them
+     * the code of every function is passed through the peephole optimizer, null leaves it as generated
+     * the IR of every function is passed through the pass manager before registers are allocated
+     */
+    public CodeGenerator(Parser parser, AllocatorFactory allocatorFactory, int threads, CompileStatistics statistics,
+                         PeepholeOptimizer peepholeOptimizer, PassManager passManager) {
         this.parser = parser;
         this.allocatorFactory = allocatorFactory;
+        this.threads = threads;
+        this.statistics = statistics;
+        this.peepholeOptimizer = peepholeOptimizer;
+        this.passManager = passManager;
     }
 
-    public List<String> generateMips() {
-        List<String> instructions = generateInitSegment();
-        while (true) {
-            List<String> functionLines = parser.getNextFunction();
-            if (functionLines == null) break;
-            FunctionParser functionParser = new FunctionParser(functionLines);
-            FunctionData data = functionParser.getFunctionData();
-            Allocator allocator = allocatorFactory.create(data, staticArrays, staticVars, floats);
-            MemoryTable memoryTable = allocator.allocate();
-            instructions.addAll(generateFunction(memoryTable, data.getInstructions()));
-        }
-        instructions.addAll(generateStandardFunctions());
+    public List<MipsInstruction> generateMips() {
+        List<MipsInstruction> instructions = new ArrayList<>();
+        generateMips(instructions::addAll);
         return instructions;
     }
 
-    private List<String> generateInitSegment() {
-        List<String> instructions = new ArrayList<>();
-        instructions.add(".data");
+    /**
+     * writes every function as soon as it is generated, so only the functions in flight are kept in memory
+     */
+    public void generateMips(Writer writer) throws IOException {
+        MipsPrinter printer = new MipsPrinter();
+        try {
+            generateMips(instructions -> {
+                try {
+                    printer.print(instructions, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void generateMips(Consumer<List<MipsInstruction>> sink) {
+        sink.accept(generateInitSegment());
+        if (threads > 1) {
+            generateFunctionsInParallel(sink);
+        } else {
+            while (true) {
+                FunctionStatistics functionStatistics = newFunctionStatistics();
+                List<String> functionLines = readFunction(functionStatistics);
+                if (functionLines == null) break;
+                emit(compileFunction(functionLines, functionStatistics), sink);
+            }
+        }
+        sink.accept(generateStandardFunctions());
+    }
+
+    private void generateFunctionsInParallel(Consumer<List<MipsInstruction>> sink) {
+        // static tables are complete and only read from here on, every task owns its function data and memory table
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // a bounded window of functions in flight keeps memory proportional to the largest functions, not the program
+            Deque<Future<CompiledFunction>> functions = new ArrayDeque<>();
+            while (true) {
+                FunctionStatistics functionStatistics = newFunctionStatistics();
+                List<String> functionLines = readFunction(functionStatistics);
+                if (functionLines == null) break;
+                if (functions.size() == threads * 2) emit(functions.poll().get(), sink);
+                functions.add(executor.submit(() -> compileFunction(functionLines, functionStatistics)));
+            }
+            while (!functions.isEmpty()) {
+                emit(functions.poll().get(), sink);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private FunctionStatistics newFunctionStatistics() {
+        return statistics == null ? null : new FunctionStatistics();
+    }
+
+    /**
+     * returns lines of the next function, null after the last one
+     * with statistics the lines are indexed right away, so reading is measured apart from parsing
+     */
+    private List<String> readFunction(FunctionStatistics functionStatistics) {
+        if (functionStatistics == null) return parser.getNextFunction();
+        functionStatistics.startPhase();
+        List<String> functionLines = parser.getNextIndexedFunction();
+        functionStatistics.endPhase(Phase.READ);
+        return functionLines;
+    }
+
+    private CompiledFunction compileFunction(List<String> functionLines, FunctionStatistics functionStatistics) {
+        if (functionStatistics == null) return new CompiledFunction(compileFunction(functionLines), null);
+
+        functionStatistics.startPhase();
+        FunctionData data = new FunctionParser(functionLines).getFunctionData();
+        functionStatistics.endPhase(Phase.PARSE);
+
+        functionStatistics.startPhase();
+        passManager.run(data, staticVars, floats);
+        functionStatistics.endPhase(Phase.OPTIMIZE);
+
+        functionStatistics.startPhase();
+        MemoryTable memoryTable = allocatorFactory.create(data, staticArrays, staticVars, floats).allocate();
+        functionStatistics.endPhase(Phase.ALLOCATE);
+
+        functionStatistics.startPhase();
+        List<MipsInstruction> instructions = generateFunction(memoryTable, data);
+        functionStatistics.endPhase(Phase.CODEGEN);
+
+        functionStatistics.recordAllocation(data, memoryTable);
+        functionStatistics.recordInstructions(instructions);
+        return new CompiledFunction(instructions, functionStatistics);
+    }
+
+    private List<MipsInstruction> compileFunction(List<String> functionLines) {
+        FunctionParser functionParser = new FunctionParser(functionLines);
+        FunctionData data = functionParser.getFunctionData();
+        passManager.run(data, staticVars, floats);
+        Allocator allocator = allocatorFactory.create(data, staticArrays, staticVars, floats);
+        MemoryTable memoryTable = allocator.allocate();
+        return generateFunction(memoryTable, data);
+    }
+
+    private void emit(CompiledFunction function, Consumer<List<MipsInstruction>> sink) {
+        if (function.statistics() == null) {
+            sink.accept(function.instructions());
+            return;
+        }
+        function.statistics().startPhase();
+        sink.accept(function.instructions());
+        function.statistics().endPhase(Phase.WRITE);
+        statistics.addFunction(function.statistics());
+    }
+
+    private List<MipsInstruction> generateInitSegment() {
+        List<MipsInstruction> instructions = new ArrayList<>();
+        instructions.add(MipsInstruction.of(Opcode.DATA_SECTION));
         staticVars = new HashSet<>(parser.getStaticVariables());
         staticArrays = parser.getStaticArrays();
         floats = parser.getFloatVariables();
+        functionFloatParameters = parser.getFunctionFloatParameters();
         for (String var : staticVars) {
-            instructions.add(generateStaticVariableInstruction(var, 4));
+            instructions.add(MipsInstruction.space(var, 4));
         }
         for (String arr : staticArrays.keySet()) {
             int arraySize = staticArrays.get(arr);
             staticVars.add(arr);
-            instructions.add(generateStaticVariableInstruction(arr, arraySize * 4));
+            instructions.add(MipsInstruction.space(arr, arraySize * 4));
         }
-        instructions.add(".text");
-        instructions.add("");
+        instructions.add(MipsInstruction.of(Opcode.TEXT_SECTION));
         return instructions;
     }
 
-    private List<String> generateFunction(MemoryTable memoryTable, List<IRInstruction> irInstructions) {
-        List<String> instructions = new ArrayList<>();
+    private List<MipsInstruction> generateFunction(MemoryTable memoryTable, FunctionData data) {
+        List<IRInstruction> irInstructions = data.getInstructions();
+        List<MipsInstruction> instructions = new ArrayList<>(irInstructions.size() * 4);
         // write name label
-        instructions.add(irInstructions.get(0).getOperation());
-        irInstructions.remove(0);
-        //decrement $sp
-        instructions.add(generateDecreaseStackPointer(memoryTable.getFrameSize()));
+        MipsInstruction functionLabel = generateLabel(irInstructions.get(0));
+        String functionName = functionLabel.getSymbol();
+        instructions.add(functionLabel);
+        //decrement $sp, a function without locals in memory and without saved registers has no frame
+        if (memoryTable.getFrameSize() > 0) instructions.add(generateStackPointerAdjustment(-memoryTable.getFrameSize()));
 
         //save registers
-        for (String registerName : mustSaveIntegerRegisters) {
-            instructions.add(generateStoreVariableFromRegisterInstruction(registerName,
-                    String.valueOf(memoryTable.getSavedRegisterOffset(registerName)),
-                    SP_REGISTER, false));
+        for (String registerName : memoryTable.getSavedRegisters()) {
+            Register register = Register.of(registerName);
+            instructions.add(generateStoreVariableFromRegisterInstruction(register,
+                    memoryTable.getSavedRegisterOffset(registerName), Register.SP));
+        }
+
+        // register parameters move to their own register or home slot before any call reuses the argument registers,
+        // stack parameters kept in registers for the whole function are loaded once
+        List<String> parameters = data.getIntParameters();
+        List<String> argumentRegisters = CallingConvention.getArgumentRegisters(data.getFloatParameters());
+        for (int i = 0; i < parameters.size(); i++) {
+            String parameter = parameters.get(i);
+            boolean isInRegister = memoryTable.isVariableInRegister(parameter);
+            if (argumentRegisters.get(i) != null) {
+                // a parameter the function never reads has neither a register nor a slot
+                if (!isInRegister && !memoryTable.isVariableStack(parameter)) continue;
+                Register argumentRegister = Register.of(argumentRegisters.get(i));
+                instructions.add(isInRegister
+                        ? generateRegisterToRegisterMove(Register.of(memoryTable.getVariableRegister(parameter)), argumentRegister)
+                        : generateStoreVariableFromRegisterInstruction(argumentRegister, memoryTable.getStackVariableOffset(parameter), Register.SP));
+            } else if (isInRegister) {
+                Register register = Register.of(memoryTable.getVariableRegister(parameter));
+                instructions.add(generateLoadVariableInRegisterInstruction(register,
+                        memoryTable.getStackVariableOffset(parameter), Register.SP));
+            }
         }
 
-        for (IRInstruction irInstruction : irInstructions) {
-            if (irInstruction.getInstructionType() == InstructionType.LABEL) instructions.add(irInstruction.getOperation());
-            if (irInstruction.getInstructionType() == InstructionType.ASSIGN) instructions.addAll(generateAssign(irInstruction, memoryTable));
-            if (irInstruction.getInstructionType() == InstructionType.CALL) instructions.addAll(generateCall(irInstruction, memoryTable));
-            if (irInstruction.getInstructionType() == InstructionType.CALLR) instructions.addAll(generateCallR(irInstruction, memoryTable));
-            if (irInstruction.getInstructionType() == InstructionType.RETURN) instructions.addAll(generateReturn(irInstruction, memoryTable));
-            if (irInstruction.getInstructionType() == InstructionType.ARITHMETIC) instructions.addAll(generateArithmetic(irInstruction, memoryTable));
-            if (irInstruction.getInstructionType() == InstructionType.BRANCH) instructions.addAll(generateBranch(irInstruction, memoryTable));
-            if (irInstruction.getInstructionType() == InstructionType.GOTO) instructions.addAll(generateGoto(irInstruction));
-            if (irInstruction.getInstructionType() == InstructionType.ARRAY_STORE) instructions.addAll(generateArrayStore(irInstruction, memoryTable));
-            if (irInstruction.getInstructionType() == InstructionType.ARRAY_LOAD) instructions.addAll(generateArrayLoad(irInstruction, memoryTable));
+        Iterator<BlockAllocation> blocks = memoryTable.getBlockAllocations().iterator();
+        BlockAllocation nextBlock = blocks.hasNext() ? blocks.next() : null;
+        BlockAllocation currentBlock = null;
+        ArrayAddress arrayAddress = new ArrayAddress();
+
+        for (int i = 1; i < irInstructions.size(); i++) {
+            IRInstruction irInstruction = irInstructions.get(i);
+            InstructionType instructionType = irInstruction.getInstructionType();
+
+            boolean isBlockStart = nextBlock != null && nextBlock.getStart() == i;
+            // every other instruction may use the address register as scratch or be a jump target
+            if (isBlockStart || (instructionType != InstructionType.ARRAY_LOAD && instructionType != InstructionType.ARRAY_STORE))
+                arrayAddress.clear();
+            if (instructionType == InstructionType.LABEL) instructions.add(generateLabel(irInstruction));
+            // block values are loaded after the label, so that every jump to it gets them
+            if (isBlockStart) {
+                currentBlock = nextBlock;
+                nextBlock = blocks.hasNext() ? blocks.next() : null;
+                memoryTable.enterBlock(currentBlock);
+                generateBlockEntry(currentBlock, memoryTable, instructions);
+            }
+
+            boolean isBlockEnd = currentBlock != null && currentBlock.getEnd() == i + 1;
+            boolean isControlTransfer = instructionType == InstructionType.BRANCH || instructionType == InstructionType.GOTO;
+            // values must reach memory before control leaves the block, locals are dead after return
+            if (isBlockEnd && isControlTransfer) generateBlockExit(currentBlock, memoryTable, instructions);
+
+            switch (instructionType) {
+                case ASSIGN -> generateAssign(irInstruction, memoryTable, functionName, i, instructions);
+                case CALL -> generateCall(irInstruction, memoryTable, instructions);
+                case CALLR -> generateCallR(irInstruction, memoryTable, instructions);
+                case RETURN -> generateReturn(irInstruction, memoryTable, instructions);
+                case ARITHMETIC -> generateArithmetic(irInstruction, memoryTable, instructions);
+                case BRANCH -> generateBranch(irInstruction, memoryTable, instructions);
+                case GOTO -> generateGoto(irInstruction, instructions);
+                case ARRAY_STORE -> generateArrayStore(irInstruction, memoryTable, arrayAddress, instructions);
+                case ARRAY_LOAD -> generateArrayLoad(irInstruction, memoryTable, arrayAddress, instructions);
+                case LABEL -> {
+                }
+            }
+
+            if (isBlockEnd) {
+                if (!isControlTransfer && instructionType != InstructionType.RETURN)
+                    generateBlockExit(currentBlock, memoryTable, instructions);
+                memoryTable.exitBlock();
+                currentBlock = null;
+            }
         }
 
-        return instructions;
+        return peepholeOptimizer == null ? instructions : peepholeOptimizer.optimize(instructions);
     }
 
-    private List<String> loadVariableInRegister(String variableToLoad, String register, MemoryTable memoryTable) {
-        List<String> instructions = new ArrayList<>();
-
-        if (isFloatConstant(variableToLoad)) {
-            instructions.add(generateLoadConstantInRegisterInstruction(register, variableToLoad, true));
-            return instructions;
+    private void generateBlockEntry(BlockAllocation block, MemoryTable memoryTable, List<MipsInstruction> instructions) {
+        for (String variable : block.getLoadedVariables()) {
+            Register register = Register.of(block.getVariableRegisters().get(variable));
+            instructions.add(generateLoadVariableInRegisterInstruction(register, memoryTable.getStackVariableOffset(variable), Register.SP));
         }
+    }
 
-        if (isIntegerConstant(variableToLoad)) {
-            instructions.add(generateLoadConstantInRegisterInstruction(register, variableToLoad, false));
-            return instructions;
+    private void generateBlockExit(BlockAllocation block, MemoryTable memoryTable, List<MipsInstruction> instructions) {
+        for (String variable : block.getStoredVariables()) {
+            Register register = Register.of(block.getVariableRegisters().get(variable));
+            instructions.add(generateStoreVariableFromRegisterInstruction(register, memoryTable.getStackVariableOffset(variable), Register.SP));
         }
+    }
 
-        boolean isFloat = memoryTable.isVariableFloat(variableToLoad);
+    private void loadVariableInRegister(String variableToLoad, int id, Register register, MemoryTable memoryTable,
+                                        List<MipsInstruction> instructions) {
+        if (id == SymbolTable.NO_SYMBOL) {
+            instructions.add(generateLoadConstantInRegisterInstruction(register, variableToLoad, isFloatConstant(variableToLoad)));
+            return;
+        }
 
-        if (memoryTable.isVariableInRegister(variableToLoad)) {
-            instructions.add(generateRegisterToRegisterMove(register, memoryTable.getVariableRegister(variableToLoad), isFloat));
+        if (memoryTable.isVariableInRegister(id)) {
+            instructions.add(generateRegisterToRegisterMove(register, Register.of(memoryTable.getVariableRegister(id))));
         } else {
-            if (memoryTable.isVariableStack(variableToLoad)) {
-                int offset = memoryTable.getStackVariableOffset(variableToLoad);
-                instructions.add(generateLoadVariableInRegisterInstruction(register, String.valueOf(offset), SP_REGISTER, isFloat));
+            if (memoryTable.isVariableStack(id)) {
+                int offset = memoryTable.getStackVariableOffset(id);
+                instructions.add(generateLoadVariableInRegisterInstruction(register, offset, Register.SP));
             }
-            if (memoryTable.isVariableStatic(variableToLoad)) {
-                instructions.add(generateLoadVariableInRegisterInstruction(register, variableToLoad, ZERO_REGISTER, isFloat));
+            if (memoryTable.isVariableStatic(id)) {
+                instructions.add(generateLoadVariableInRegisterInstruction(register, memoryTable.getSymbolName(id), Register.ZERO));
             }
         }
-
-        return instructions;
     }
 
-    private List<String> saveVariableFromRegister(String variableToSave, String register, MemoryTable memoryTable) {
-        List<String> instructions = new ArrayList<>();
-
-        if (isFloatConstant(variableToSave)) {
-            instructions.add(generateLoadConstantInRegisterInstruction(register, variableToSave, true));
-            return instructions;
-        }
-
-        if (isIntegerConstant(variableToSave)) {
-            instructions.add(generateLoadConstantInRegisterInstruction(register, variableToSave, false));
-            return instructions;
+    private void saveVariableFromRegister(String variableToSave, int id, Register register, MemoryTable memoryTable,
+                                          List<MipsInstruction> instructions) {
+        if (id == SymbolTable.NO_SYMBOL) {
+            instructions.add(generateLoadConstantInRegisterInstruction(register, variableToSave, isFloatConstant(variableToSave)));
+            return;
         }
 
-        boolean isFloat = memoryTable.isVariableFloat(variableToSave);
-
         // if in register move not save
-        if (memoryTable.isVariableInRegister(variableToSave)) {
-            instructions.add(generateRegisterToRegisterMove(memoryTable.getVariableRegister(variableToSave), register, isFloat));
+        if (memoryTable.isVariableInRegister(id)) {
+            instructions.add(generateRegisterToRegisterMove(Register.of(memoryTable.getVariableRegister(id)), register));
         } else {
 
-            if (memoryTable.isVariableStack(variableToSave)) {
-                int offset = memoryTable.getStackVariableOffset(variableToSave);
-                instructions.add(generateStoreVariableFromRegisterInstruction(register, String.valueOf(offset), SP_REGISTER, isFloat));
+            if (memoryTable.isVariableStack(id)) {
+                int offset = memoryTable.getStackVariableOffset(id);
+                instructions.add(generateStoreVariableFromRegisterInstruction(register, offset, Register.SP));
             }
-            if (memoryTable.isVariableStatic(variableToSave)) {
-                instructions.add(generateStoreVariableFromRegisterInstruction(register, variableToSave, ZERO_REGISTER, isFloat));
+            if (memoryTable.isVariableStatic(id)) {
+                instructions.add(generateStoreVariableFromRegisterInstruction(register, memoryTable.getSymbolName(id), Register.ZERO));
             }
         }
-
-        return instructions;
     }
 
-    private List<String> generateAssign(IRInstruction irInstruction, MemoryTable memoryTable) {
-        List<String> instructions = new ArrayList<>();
+    /**
+     * functionName and index of the instruction in the function name the loop of a large array assignment
+     */
+    private void generateAssign(IRInstruction irInstruction, MemoryTable memoryTable, String functionName, int index,
+                                List<MipsInstruction> instructions) {
         List<String> arguments = irInstruction.getArguments();
-        boolean isVarToSaveFloat = memoryTable.isVariableFloat(arguments.get(0));
+        int varToSaveId = irInstruction.getArgumentId(0);
+        boolean isVarToSaveFloat = memoryTable.isVariableFloat(varToSaveId);
+        boolean isArrayLoop = memoryTable.isVariableArray(varToSaveId) && memoryTable.getArraySize(varToSaveId) > ARRAY_LOOP_THRESHOLD;
+
+        if (arguments.size() == 3 && isArrayLoop) {
+            String value = arguments.get(2);
+            int valueId = irInstruction.getArgumentId(2);
+            boolean isVarToLoadFloat = isFloatOperand(value, valueId, memoryTable);
+            Register tmpRegister = isVarToLoadFloat? tempFloatRegisters.get(1) : tempIntegerRegisters.get(1);
+            loadVariableInRegister(value, valueId, tmpRegister, memoryTable, instructions);
+            if (isVarToSaveFloat && !isVarToLoadFloat) {
+                Register sourceRegister = tmpRegister;
+                tmpRegister = tempFloatRegisters.get(0);
+                instructions.add(generateMoveIntRegisterToFloatRegister(tmpRegister, sourceRegister));
+                instructions.add(generateConvertFloatToInt(tmpRegister, tmpRegister));
+            }
+            generateArrayLoop(varToSaveId, SymbolTable.NO_SYMBOL, tmpRegister, arrayLoopLabel(functionName, index), memoryTable, instructions);
+            return;
+        }
 
         if (arguments.size() == 3) { //array initialization
-            for (int i = 0; i < memoryTable.getArraySize(arguments.get(0)); i++) {
-                boolean isVarToLoadFloat = memoryTable.isVariableFloat(arguments.get(2)) || isFloatConstant(arguments.get(2));
-                String tmpRegister = isVarToLoadFloat? tempFloatRegisters.get(1) : tempIntegerRegisters.get(1);
-                instructions.addAll(loadVariableInRegister(arguments.get(2), tmpRegister, memoryTable));
+            String value = arguments.get(2);
+            int valueId = irInstruction.getArgumentId(2);
+            for (int i = 0; i < memoryTable.getArraySize(varToSaveId); i++) {
+                boolean isVarToLoadFloat = isFloatOperand(value, valueId, memoryTable);
+                Register tmpRegister = isVarToLoadFloat? tempFloatRegisters.get(1) : tempIntegerRegisters.get(1);
+                loadVariableInRegister(value, valueId, tmpRegister, memoryTable, instructions);
                 if (isVarToSaveFloat && !isVarToLoadFloat) {
-                    String sourceRegister = tmpRegister;
+                    Register sourceRegister = tmpRegister;
                     tmpRegister = tempFloatRegisters.get(0);
                     instructions.add(generateMoveIntRegisterToFloatRegister(tmpRegister, sourceRegister));
                     instructions.add(generateConvertFloatToInt(tmpRegister, tmpRegister));
                 }
-                instructions.addAll(generateArrayStoreHelper(arguments.get(0), tmpRegister, String.valueOf(i), memoryTable));
+                generateArrayStoreHelper(varToSaveId, tmpRegister, String.valueOf(i), SymbolTable.NO_SYMBOL, memoryTable, null, instructions);
             }
-            return instructions;
+            return;
         }
 
-        if (memoryTable.isVariableArray(arguments.get(0)) && memoryTable.isVariableArray(arguments.get(1))) {
-            for (int i = 0; i < memoryTable.getArraySize(arguments.get(0)); i++) {
-                String tmpRegister = isVarToSaveFloat? tempFloatRegisters.get(1) : tempIntegerRegisters.get(1);
-                instructions.addAll(generateArrayLoadHelper(arguments.get(1), tmpRegister, String.valueOf(i), memoryTable));
-                instructions.addAll(generateArrayStoreHelper(arguments.get(0), tmpRegister, String.valueOf(i), memoryTable));
+        int varToLoadId = irInstruction.getArgumentId(1);
+        if (isArrayLoop && memoryTable.isVariableArray(varToLoadId)) {
+            Register tmpRegister = isVarToSaveFloat? tempFloatRegisters.get(1) : tempIntegerRegisters.get(1);
+            generateArrayLoop(varToSaveId, varToLoadId, tmpRegister, arrayLoopLabel(functionName, index), memoryTable, instructions);
+            return;
+        }
+        if (memoryTable.isVariableArray(varToSaveId) && memoryTable.isVariableArray(varToLoadId)) {
+            for (int i = 0; i < memoryTable.getArraySize(varToSaveId); i++) {
+                Register tmpRegister = isVarToSaveFloat? tempFloatRegisters.get(1) : tempIntegerRegisters.get(1);
+                generateArrayLoadHelper(varToLoadId, tmpRegister, String.valueOf(i), SymbolTable.NO_SYMBOL, memoryTable, null, instructions);
+                generateArrayStoreHelper(varToSaveId, tmpRegister, String.valueOf(i), SymbolTable.NO_SYMBOL, memoryTable, null, instructions);
             }
-            return instructions;
+            return;
         }
 
         String varToSave = arguments.get(0);
         String varToLoad = arguments.get(1);
-        boolean isVarToLoadFloat = memoryTable.isVariableFloat(varToLoad) || isFloatConstant(varToLoad);
-        String reg = isVarToLoadFloat? tempFloatRegisters.get(0) : tempIntegerRegisters.get(0);
+        boolean isVarToLoadFloat = isFloatOperand(varToLoad, varToLoadId, memoryTable);
+        Register reg = isVarToLoadFloat? tempFloatRegisters.get(0) : tempIntegerRegisters.get(0);
 
-        instructions.addAll(loadVariableInRegister(varToLoad, reg, memoryTable));
+        loadVariableInRegister(varToLoad, varToLoadId, reg, memoryTable, instructions);
 
         if (isVarToSaveFloat && !isVarToLoadFloat) {
-            String sourceRegister = reg;
+            Register sourceRegister = reg;
             reg = tempFloatRegisters.get(0);
             instructions.add(generateMoveIntRegisterToFloatRegister(reg, sourceRegister));
             instructions.add(generateConvertFloatToInt(reg, reg));
         }
 
-        instructions.addAll(saveVariableFromRegister(varToSave, reg, memoryTable));
-        return instructions;
+        saveVariableFromRegister(varToSave, varToSaveId, reg, memoryTable, instructions);
+    }
+
+    /**
+     * stores valueRegister into every element of the array, or copies every element of the source array through it
+     * when sourceArrayId is a symbol; the byte offset counts down in $t0, stack arrays address through $t2 = $t0 + $sp
+     *     li $t0, 4 * (n - 1)
+     * loop:
+     *     lw $t1, source($t0)
+     *     sw $t1, destination($t0)
+     *     addi $t0, $t0, -4
+     *     bge $t0, $zero, loop
+     */
+    private void generateArrayLoop(int arrayId, int sourceArrayId, Register valueRegister, String label, MemoryTable memoryTable,
+                                   List<MipsInstruction> instructions) {
+        Register offsetRegister = tempIntegerRegisters.get(0);
+        Register stackAddressRegister = tempIntegerRegisters.get(2);
+        boolean isCopy = sourceArrayId != SymbolTable.NO_SYMBOL;
+        instructions.add(generateLoadConstantInRegisterInstruction(offsetRegister,
+                String.valueOf(4 * (memoryTable.getArraySize(arrayId) - 1)), false));
+        instructions.add(MipsInstruction.label(label));
+        if (!memoryTable.isVariableStatic(arrayId) || (isCopy && !memoryTable.isVariableStatic(sourceArrayId))) {
+            instructions.add(generateArithmeticInstruction(Opcode.ADD, stackAddressRegister, offsetRegister, Register.SP));
+        }
+        if (isCopy) {
+            instructions.add(generateArrayLoopAccess(valueRegister.isFloat()? Opcode.L_S : Opcode.LW, valueRegister, sourceArrayId, memoryTable));
+        }
+        instructions.add(generateArrayLoopAccess(valueRegister.isFloat()? Opcode.S_S : Opcode.SW, valueRegister, arrayId, memoryTable));
+        instructions.add(MipsInstruction.of(Opcode.ADDI, offsetRegister, offsetRegister, -4));
+        instructions.add(generateIntegerBranchInstruction(Opcode.BGE, offsetRegister, Register.ZERO, label));
+    }
+
+    private MipsInstruction generateArrayLoopAccess(Opcode opcode, Register valueRegister, int arrayId, MemoryTable memoryTable) {
+        if (memoryTable.isVariableStatic(arrayId)) {
+            return MipsInstruction.memory(opcode, valueRegister, memoryTable.getSymbolName(arrayId), 0, tempIntegerRegisters.get(0));
+        }
+        return MipsInstruction.memory(opcode, valueRegister, memoryTable.getStackVariableOffset(arrayId), tempIntegerRegisters.get(2));
+    }
+
+    /**
+     * labels of the program are unique, the leading underscore keeps these apart from them like the library labels
+     */
+    private static String arrayLoopLabel(String functionName, int index) {
+        return "_array_" + functionName + "_" + index;
     }
 
-    private List<String> generateArrayStore(IRInstruction irInstruction, MemoryTable memoryTable) {
-        List<String> instructions = new ArrayList<>();
+    private void generateArrayStore(IRInstruction irInstruction, MemoryTable memoryTable, ArrayAddress arrayAddress,
+                                    List<MipsInstruction> instructions) {
         List<String> arguments = irInstruction.getArguments();
 
-        String arrayToSave = arguments.get(0);
+        int arrayToSaveId = irInstruction.getArgumentId(0);
         String varName = arguments.get(2);
-        String index = arguments.get(1);
+        int varId = irInstruction.getArgumentId(2);
 
-        boolean isArrayToSaveFloat = memoryTable.isVariableFloat(arrayToSave);
-        boolean isVarToLoadFloat = memoryTable.isVariableFloat(varName) || isFloatConstant(varName);
+        boolean isArrayToSaveFloat = memoryTable.isVariableFloat(arrayToSaveId);
+        boolean isVarToLoadFloat = isFloatOperand(varName, varId, memoryTable);
 
-        String toSaveRegister = isVarToLoadFloat? tempFloatRegisters.get(1) : tempIntegerRegisters.get(1);
-        instructions.addAll(loadVariableInRegister(varName, toSaveRegister, memoryTable));
+        Register toSaveRegister = isVarToLoadFloat? tempFloatRegisters.get(1) : tempIntegerRegisters.get(1);
+        loadVariableInRegister(varName, varId, toSaveRegister, memoryTable, instructions);
 
         if (isArrayToSaveFloat && !isVarToLoadFloat) {
-            String sourceRegister = toSaveRegister;
+            Register sourceRegister = toSaveRegister;
             toSaveRegister = tempFloatRegisters.get(0);
             instructions.add(generateMoveIntRegisterToFloatRegister(toSaveRegister, sourceRegister));
             instructions.add(generateConvertFloatToInt(toSaveRegister, toSaveRegister));
         }
 
-        instructions.addAll(generateArrayStoreHelper(arrayToSave, toSaveRegister, index, memoryTable));
-
-        return instructions;
+        generateArrayStoreHelper(arrayToSaveId, toSaveRegister, arguments.get(1), irInstruction.getArgumentId(1), memoryTable,
+                arrayAddress, instructions);
     }
 
-    private List<String> generateArrayStoreHelper(String arrayToSave, String toSaveRegister, String index, MemoryTable memoryTable) {
-        List<String> instructions = new ArrayList<>();
-
-        String addressRegister = tempIntegerRegisters.get(0);
-        String multiplierRegister = tempIntegerRegisters.get(2);
-
-        boolean isFloat = memoryTable.isVariableFloat(arrayToSave);
-        // static array sw $rs, label($rd)
-        if (memoryTable.isVariableStatic(arrayToSave)) {
-            generateArrayElementAddressOffset(memoryTable, instructions, addressRegister, multiplierRegister, index);
-            instructions.add(generateStoreVariableFromRegisterInstruction(toSaveRegister, arrayToSave, addressRegister, isFloat));
-        }
-
-        // stack array sw $rs, 0($address)
-        if (memoryTable.isVariableStack(arrayToSave)) {
-            generateArrayElementAddressOffset(memoryTable, instructions, addressRegister, multiplierRegister, index);
-            instructions.add(generateArithmeticInstruction("add", addressRegister, addressRegister, SP_REGISTER));
-            instructions.add(generateStoreVariableFromRegisterInstruction(toSaveRegister, String.valueOf(memoryTable.getStackVariableOffset(arrayToSave)), addressRegister, isFloat));
-        }
-
-        return instructions;
+    private void generateArrayStoreHelper(int arrayToSaveId, Register toSaveRegister, String index, int indexId, MemoryTable memoryTable,
+                                          ArrayAddress arrayAddress, List<MipsInstruction> instructions) {
+        Opcode store = toSaveRegister.isFloat()? Opcode.S_S : Opcode.SW;
+        generateArrayElementAccess(store, toSaveRegister, arrayToSaveId, index, indexId, memoryTable, arrayAddress, instructions);
     }
 
-    private List<String> generateArrayLoad(IRInstruction irInstruction, MemoryTable memoryTable) {
+    private void generateArrayLoad(IRInstruction irInstruction, MemoryTable memoryTable, ArrayAddress arrayAddress,
+                                   List<MipsInstruction> instructions) {
         List<String> arguments = irInstruction.getArguments();
 
-        String array = arguments.get(1);
+        int arrayId = irInstruction.getArgumentId(1);
         String variableName = arguments.get(0);
-        String index = arguments.get(2);
 
-        boolean isFloat = memoryTable.isVariableFloat(array);
+        boolean isFloat = memoryTable.isVariableFloat(arrayId);
 
-        String toLoadRegister = isFloat? tempFloatRegisters.get(1) : tempIntegerRegisters.get(1);
+        Register toLoadRegister = isFloat? tempFloatRegisters.get(1) : tempIntegerRegisters.get(1);
 
-        List<String> instructions = generateArrayLoadHelper(array, toLoadRegister, index, memoryTable);
-        instructions.addAll(saveVariableFromRegister(variableName, toLoadRegister, memoryTable));
-        return instructions;
+        generateArrayLoadHelper(arrayId, toLoadRegister, arguments.get(2), irInstruction.getArgumentId(2), memoryTable,
+                arrayAddress, instructions);
+        saveVariableFromRegister(variableName, irInstruction.getArgumentId(0), toLoadRegister, memoryTable, instructions);
+        // the address computed from the old value of the index is stale
+        if (irInstruction.getArgumentId(0) == arrayAddress.indexId) arrayAddress.clear();
     }
 
-    private List<String> generateArrayLoadHelper(String array, String toLoadRegister, String index, MemoryTable memoryTable) {
-        List<String> instructions = new ArrayList<>();
-
-        String addressRegister = tempIntegerRegisters.get(0);
-        String multiplierRegister = tempIntegerRegisters.get(2);
-
-        boolean isFloat = memoryTable.isVariableFloat(array);
-
-        // static array lw $rs, label($rd)
-        //              sw $rs, offset($sp)
-        if (memoryTable.isVariableStatic(array)) {
-            generateArrayElementAddressOffset(memoryTable, instructions, addressRegister, multiplierRegister, index);
-            instructions.add(generateLoadVariableInRegisterInstruction(toLoadRegister, array, addressRegister, isFloat));
-        }
+    private void generateArrayLoadHelper(int arrayId, Register toLoadRegister, String index, int indexId, MemoryTable memoryTable,
+                                         ArrayAddress arrayAddress, List<MipsInstruction> instructions) {
+        Opcode load = toLoadRegister.isFloat()? Opcode.L_S : Opcode.LW;
+        generateArrayElementAccess(load, toLoadRegister, arrayId, index, indexId, memoryTable, arrayAddress, instructions);
+    }
 
-        // stack array sw $rs, 0($address)
-        if (memoryTable.isVariableStack(array)) {
-            generateArrayElementAddressOffset(memoryTable, instructions, addressRegister, multiplierRegister, index);
-            instructions.add(generateArithmeticInstruction("add", addressRegister, addressRegister, SP_REGISTER));
-            instructions.add(generateLoadVariableInRegisterInstruction(toLoadRegister, String.valueOf(memoryTable.getStackVariableOffset(array)), addressRegister, isFloat));
+    /**
+     * a constant index is folded into the displacement: lw $rs, label+8($zero) or lw $rs, offset+8($sp)
+     * a variable index is scaled into the address register: lw $rs, label($t0) or lw $rs, offset($t0) with $sp added
+     * arrayAddress may be null for constant indices
+     */
+    private void generateArrayElementAccess(Opcode opcode, Register valueRegister, int arrayId, String index, int indexId,
+                                            MemoryTable memoryTable, ArrayAddress arrayAddress, List<MipsInstruction> instructions) {
+        boolean isStatic = memoryTable.isVariableStatic(arrayId);
+        int offset = isStatic ? 0 : memoryTable.getStackVariableOffset(arrayId);
+        Register base;
+        if (indexId == SymbolTable.NO_SYMBOL) {
+            offset += Integer.parseInt(index) * 4;
+            base = isStatic ? Register.ZERO : Register.SP;
+        } else {
+            base = generateArrayElementAddress(index, indexId, !isStatic, memoryTable, arrayAddress, instructions);
         }
-        return instructions;
+        instructions.add(isStatic ? MipsInstruction.memory(opcode, valueRegister, memoryTable.getSymbolName(arrayId), offset, base)
+                : MipsInstruction.memory(opcode, valueRegister, offset, base));
     }
 
-    private void generateArrayElementAddressOffset(MemoryTable memoryTable, List<String> instructions, String addressRegister, String multiplierRegister, String index) {
-        instructions.addAll(loadVariableInRegister(index, addressRegister, memoryTable));
-        instructions.add(generateLoadConstantInRegisterInstruction(multiplierRegister, String.valueOf(4), false));
-        instructions.add(generateArithmeticInstruction("mul", addressRegister, addressRegister, multiplierRegister));
+    private Register generateArrayElementAddress(String index, int indexId, boolean stackRelative, MemoryTable memoryTable,
+                                                 ArrayAddress arrayAddress, List<MipsInstruction> instructions) {
+        Register addressRegister = tempIntegerRegisters.get(0);
+        if (arrayAddress.holds(indexId, stackRelative)) return addressRegister;
+
+        // an index kept in a register is shifted from there, without a copy into the address register first
+        Register indexRegister = addressRegister;
+        if (memoryTable.isVariableInRegister(indexId)) {
+            indexRegister = Register.of(memoryTable.getVariableRegister(indexId));
+        } else {
+            loadVariableInRegister(index, indexId, addressRegister, memoryTable, instructions);
+        }
+        instructions.add(MipsInstruction.of(Opcode.SLL, addressRegister, indexRegister, 2));
+        if (stackRelative) instructions.add(generateArithmeticInstruction(Opcode.ADD, addressRegister, addressRegister, Register.SP));
+        arrayAddress.set(indexId, stackRelative);
+        return addressRegister;
     }
 
-    private List<String> generateCall(IRInstruction irInstruction, MemoryTable memoryTable) {
-        List<String> instructions;
+    private void generateCall(IRInstruction irInstruction, MemoryTable memoryTable, List<MipsInstruction> instructions) {
         List<String> arguments = irInstruction.getArguments();
 
         String calleeName = arguments.get(0);
         if (libFunctionLabels.containsKey(calleeName)) {
-            String arg = irInstruction.getArguments().get(1);
+            String arg = arguments.get(1);
+            int argId = irInstruction.getArgumentId(1);
             boolean isFloatFunction = calleeName.equals("printf");
-            boolean isArgFloat = memoryTable.isVariableFloat(arg) || isFloatConstant(arg);
-            String reg = isArgFloat? argumentFloatRegisters.get(0) : argumentIntegerRegisters.get(0);
-            instructions = new ArrayList<>(loadVariableInRegister(arg, reg, memoryTable));
+            boolean isArgFloat = isFloatOperand(arg, argId, memoryTable);
+            Register reg = isArgFloat? argumentFloatRegisters.get(0) : argumentIntegerRegisters.get(0);
+            loadVariableInRegister(arg, argId, reg, memoryTable, instructions);
             if (isFloatFunction && !isArgFloat) {
-                String sourceRegister = reg;
+                Register sourceRegister = reg;
                 reg =  argumentFloatRegisters.get(0);
                 instructions.add(generateMoveIntRegisterToFloatRegister(reg, sourceRegister));
                 instructions.add(generateConvertFloatToInt(reg, reg));
@@ -395,116 +663,150 @@ public class CodeGenerator {
             instructions.add(generateJalInstruction(libFunctionLabels.get(calleeName)));
 
         } else {
-            int numParameters = arguments.size() - 1;
-            instructions = callHelper(arguments, memoryTable, numParameters);
+            int stackArguments = callHelper(irInstruction, 0, memoryTable, instructions);
             // increment $sp
-            instructions.add(generateIncreaseStackPointer( numParameters * 4));
+            if (stackArguments > 0) instructions.add(generateStackPointerAdjustment(stackArguments * 4));
         }
-
-        return instructions;
-
     }
 
-    private List<String> generateCallR(IRInstruction irInstruction, MemoryTable memoryTable) {
-        List<String> instructions;
+    private void generateCallR(IRInstruction irInstruction, MemoryTable memoryTable, List<MipsInstruction> instructions) {
         List<String> arguments = irInstruction.getArguments();
-        String varName = irInstruction.getArguments().get(0);
-        String calleeName = irInstruction.getArguments().get(1);
+        String varName = arguments.get(0);
+        int varId = irInstruction.getArgumentId(0);
+        String calleeName = arguments.get(1);
         if (libFunctionLabels.containsKey(calleeName)) {
-            String arg = irInstruction.getArguments().get(2);
-            instructions = new ArrayList<>(loadVariableInRegister(arg, argumentIntegerRegisters.get(0), memoryTable));
+            loadVariableInRegister(arguments.get(2), irInstruction.getArgumentId(2), argumentIntegerRegisters.get(0), memoryTable, instructions);
             instructions.add(generateJalInstruction(libFunctionLabels.get(calleeName)));
         } else {
-            arguments.remove(0);
-            int numParameters = arguments.size() - 1;
-            instructions = callHelper(arguments, memoryTable, numParameters);
+            int stackArguments = callHelper(irInstruction, 1, memoryTable, instructions);
 
             // increment $sp
-            instructions.add(generateIncreaseStackPointer(numParameters * 4));
+            if (stackArguments > 0) instructions.add(generateStackPointerAdjustment(stackArguments * 4));
         }
-        boolean isRetVariableFloat = memoryTable.isVariableFloat(varName) || isFloatConstant(varName);
+        boolean isRetVariableFloat = isFloatOperand(varName, varId, memoryTable);
         if (isRetVariableFloat)
-            instructions.addAll(saveVariableFromRegister(varName, FLOAT_RETURN_REGISTER, memoryTable));
+            saveVariableFromRegister(varName, varId, FLOAT_RETURN_REGISTER, memoryTable, instructions);
         else
-            instructions.addAll(saveVariableFromRegister(varName, INTEGER_RETURN_REGISTER, memoryTable));
-        return instructions;
+            saveVariableFromRegister(varName, varId, INTEGER_RETURN_REGISTER, memoryTable, instructions);
     }
 
-    private List<String> callHelper(List<String> arguments, MemoryTable memoryTable, int numParameters) {
-        List<String> instructions = new ArrayList<>();
-        String calleeName = arguments.get(0);
+    /**
+     * calleeIndex is the position of the callee name among the arguments, the call arguments follow it
+     * arguments go to the registers of the callee's parameter types, an int passed for a float parameter is converted
+     * returns number of arguments passed on the stack, the caller moves $sp back by as many words after the call
+     */
+    private int callHelper(IRInstruction irInstruction, int calleeIndex, MemoryTable memoryTable, List<MipsInstruction> instructions) {
+        List<String> arguments = irInstruction.getArguments();
+        String calleeName = arguments.get(calleeIndex);
+
+        List<Boolean> isParameterFloat = functionFloatParameters.get(calleeName);
+        if (isParameterFloat == null || isParameterFloat.size() != arguments.size() - calleeIndex - 1) {
+            // unknown callee, the types of the arguments stand in for the parameter types
+            isParameterFloat = new ArrayList<>();
+            for (int i = calleeIndex + 1; i < arguments.size(); i++) {
+                isParameterFloat.add(isFloatOperand(arguments.get(i), irInstruction.getArgumentId(i), memoryTable));
+            }
+        }
+        List<String> argumentRegisters = CallingConvention.getArgumentRegisters(isParameterFloat);
+        int stackArguments = CallingConvention.getStackParameterCount(argumentRegisters);
 
-        for (int i = 1; i < arguments.size(); i++) {
+        int stackArgument = 0;
+        for (int i = calleeIndex + 1; i < arguments.size(); i++) {
             String var = arguments.get(i);
-            boolean isFloat = isFloatConstant(arguments.get(i)) || memoryTable.isVariableFloat(var);
-            String reg = isFloat? tempFloatRegisters.get(0) : tempIntegerRegisters.get(0);
-            instructions.addAll(loadVariableInRegister(var, reg, memoryTable));
-            int offset = (i - 1) * 4;
-            instructions.add(generateStoreVariableFromRegisterInstruction(reg, String.valueOf(offset - numParameters * 4), SP_REGISTER, isFloat));
+            int varId = irInstruction.getArgumentId(i);
+            int parameter = i - calleeIndex - 1;
+            boolean isFloat = isFloatOperand(var, varId, memoryTable);
+            boolean isParameterFloatValue = isParameterFloat.get(parameter);
+            String argumentRegister = argumentRegisters.get(parameter);
+
+            Register reg;
+            if (argumentRegister != null && isFloat == isParameterFloatValue) {
+                reg = Register.of(argumentRegister);
+            } else {
+                reg = isFloat? tempFloatRegisters.get(0) : tempIntegerRegisters.get(0);
+            }
+            loadVariableInRegister(var, varId, reg, memoryTable, instructions);
+            if (isParameterFloatValue && !isFloat) {
+                Register sourceRegister = reg;
+                reg = argumentRegister != null ? Register.of(argumentRegister) : tempFloatRegisters.get(0);
+                instructions.add(generateMoveIntRegisterToFloatRegister(reg, sourceRegister));
+                instructions.add(generateConvertFloatToInt(reg, reg));
+            } else if (isFloat && !isParameterFloatValue) {
+                // the bits of the float go to the int parameter, as a float stored to an int slot would
+                Register sourceRegister = reg;
+                reg = argumentRegister != null ? Register.of(argumentRegister) : tempIntegerRegisters.get(0);
+                instructions.add(generateMoveFloatRegisterToIntRegister(reg, sourceRegister));
+            }
+            if (argumentRegister == null) {
+                instructions.add(generateStoreVariableFromRegisterInstruction(reg, (stackArgument - stackArguments) * 4, Register.SP));
+                stackArgument++;
+            }
         }
 
         // decrement $sp
-        instructions.add(generateDecreaseStackPointer(numParameters * 4));
+        if (stackArguments > 0) instructions.add(generateStackPointerAdjustment(-stackArguments * 4));
 
         // jump
         instructions.add(generateJalInstruction(calleeName));
-
-        return instructions;
+        return stackArguments;
     }
-    private List<String> generateReturn(IRInstruction irInstruction, MemoryTable memoryTable) {
-        List<String> instructions = new ArrayList<>();
+
+    private void generateReturn(IRInstruction irInstruction, MemoryTable memoryTable, List<MipsInstruction> instructions) {
         List<String> arguments = irInstruction.getArguments();
 
-        //load saved registers
-        for (String registerName : mustSaveIntegerRegisters) {
-            instructions.add(generateLoadVariableInRegisterInstruction(registerName,
-                    String.valueOf(memoryTable.getSavedRegisterOffset(registerName)),
-                    SP_REGISTER, false));
-        }
+        // return value first, it may live in a register which is restored below
         if (arguments.size() != 0) {
-            boolean isRetVariableFloat = memoryTable.isVariableFloat(arguments.get(0)) || isFloatConstant(arguments.get(0));
+            String value = arguments.get(0);
+            int valueId = irInstruction.getArgumentId(0);
+            boolean isRetVariableFloat = isFloatOperand(value, valueId, memoryTable);
             if (isRetVariableFloat)
-                instructions.addAll(loadVariableInRegister(arguments.get(0), FLOAT_RETURN_REGISTER, memoryTable));
+                loadVariableInRegister(value, valueId, FLOAT_RETURN_REGISTER, memoryTable, instructions);
             else
-                instructions.addAll(loadVariableInRegister(arguments.get(0), INTEGER_RETURN_REGISTER, memoryTable));
+                loadVariableInRegister(value, valueId, INTEGER_RETURN_REGISTER, memoryTable, instructions);
+        }
+
+        //load saved registers
+        for (String registerName : memoryTable.getSavedRegisters()) {
+            instructions.add(generateLoadVariableInRegisterInstruction(Register.of(registerName),
+                    memoryTable.getSavedRegisterOffset(registerName), Register.SP));
         }
 
         //increment $sp
-        instructions.add(generateIncreaseStackPointer(memoryTable.getFrameSize()));
+        if (memoryTable.getFrameSize() > 0) instructions.add(generateStackPointerAdjustment(memoryTable.getFrameSize()));
 
         instructions.add(generateJrInstruction());
-
-        return instructions;
     }
 
-    public List<String> generateArithmetic(IRInstruction irInstruction, MemoryTable memoryTable) {
-        List<String> instructions = new ArrayList<>();
+    public void generateArithmetic(IRInstruction irInstruction, MemoryTable memoryTable, List<MipsInstruction> instructions) {
         List<String> arguments = irInstruction.getArguments();
         String varToSave = arguments.get(2);
         String firstVarToAdd = arguments.get(0);
         String secondVarToAdd = arguments.get(1);
-        boolean isFirstVarFloat = memoryTable.isVariableFloat(firstVarToAdd) || isFloatConstant(firstVarToAdd);
-        boolean isSecondVarFloat = memoryTable.isVariableFloat(secondVarToAdd) || isFloatConstant(secondVarToAdd);
-        boolean isVarToSaveFloat = memoryTable.isVariableFloat(varToSave);
-        String mipsOperation = isVarToSaveFloat? IrOpsToMipsForFloats.get(irInstruction.getOperation()) : IrOpsToMipsForIntegers.get(irInstruction.getOperation());
-
-        String reg1 = isFirstVarFloat? tempFloatRegisters.get(0) : tempIntegerRegisters.get(0);
-        String reg2 = isSecondVarFloat? tempFloatRegisters.get(1) : tempIntegerRegisters.get(1);
-        String reg3 = isVarToSaveFloat? tempFloatRegisters.get(2) : tempIntegerRegisters.get(2);
+        int varToSaveId = irInstruction.getArgumentId(2);
+        int firstVarId = irInstruction.getArgumentId(0);
+        int secondVarId = irInstruction.getArgumentId(1);
+        boolean isFirstVarFloat = isFloatOperand(firstVarToAdd, firstVarId, memoryTable);
+        boolean isSecondVarFloat = isFloatOperand(secondVarToAdd, secondVarId, memoryTable);
+        boolean isVarToSaveFloat = memoryTable.isVariableFloat(varToSaveId);
+        Opcode mipsOperation = isVarToSaveFloat? IrOpsToMipsForFloats.get(irInstruction.getOpcode()) : IrOpsToMipsForIntegers.get(irInstruction.getOpcode());
+
+        Register reg1 = isFirstVarFloat? tempFloatRegisters.get(0) : tempIntegerRegisters.get(0);
+        Register reg2 = isSecondVarFloat? tempFloatRegisters.get(1) : tempIntegerRegisters.get(1);
+        Register reg3 = isVarToSaveFloat? tempFloatRegisters.get(2) : tempIntegerRegisters.get(2);
 
         //first term
-        instructions.addAll(loadVariableInRegister(firstVarToAdd, reg1, memoryTable));
+        loadVariableInRegister(firstVarToAdd, firstVarId, reg1, memoryTable, instructions);
         if (isVarToSaveFloat && !isFirstVarFloat) {
-            String sourceRegister = reg1;
+            Register sourceRegister = reg1;
             reg1 = tempFloatRegisters.get(0);
             instructions.add(generateMoveIntRegisterToFloatRegister(reg1, sourceRegister));
             instructions.add(generateConvertFloatToInt(reg1, reg1));
         }
 
         //second term
-        instructions.addAll(loadVariableInRegister(secondVarToAdd, reg2, memoryTable));
+        loadVariableInRegister(secondVarToAdd, secondVarId, reg2, memoryTable, instructions);
         if (isVarToSaveFloat && !isSecondVarFloat) {
-            String sourceRegister = reg2;
+            Register sourceRegister = reg2;
             reg2 = tempFloatRegisters.get(1);
             instructions.add(generateMoveIntRegisterToFloatRegister(reg2, sourceRegister));
             instructions.add(generateConvertFloatToInt(reg2, reg2));
@@ -514,47 +816,48 @@ public class CodeGenerator {
         instructions.add(generateArithmeticInstruction(mipsOperation, reg3, reg1, reg2));
 
         //save
-        instructions.addAll(saveVariableFromRegister(varToSave, reg3, memoryTable));
-        return instructions;
+        saveVariableFromRegister(varToSave, varToSaveId, reg3, memoryTable, instructions);
     }
 
-    private List<String> generateBranch(IRInstruction irInstruction, MemoryTable memoryTable) {
-        List<String> instructions = new ArrayList<>();
-        String branchType = IrBranchesToMipsForIntegers.get(irInstruction.getOperation());
+    private void generateBranch(IRInstruction irInstruction, MemoryTable memoryTable, List<MipsInstruction> instructions) {
+        Opcode branchType = IrBranchesToMipsForIntegers.get(irInstruction.getOpcode());
         List<String> arguments = irInstruction.getArguments();
         String label = arguments.get(2);
         String first = arguments.get(0);
         String second = arguments.get(1);
+        int firstId = irInstruction.getArgumentId(0);
+        int secondId = irInstruction.getArgumentId(1);
+
+        boolean isFirstVarFloat = isFloatOperand(first, firstId, memoryTable);
+        boolean isSecondVarFloat = isFloatOperand(second, secondId, memoryTable);
 
-        boolean isFirstVarFloat = memoryTable.isVariableFloat(first) || isFloatConstant(first);
-        boolean isSecondVarFloat = memoryTable.isVariableFloat(second) || isFloatConstant(second);
+        Register reg1 = isFirstVarFloat? tempFloatRegisters.get(0) : tempIntegerRegisters.get(0);
+        Register reg2 = isSecondVarFloat? tempFloatRegisters.get(1) : tempIntegerRegisters.get(1);
 
-        String reg1 = isFirstVarFloat? tempFloatRegisters.get(0) : tempIntegerRegisters.get(0);
-        String reg2 = isSecondVarFloat? tempFloatRegisters.get(1) : tempIntegerRegisters.get(1);
+        loadVariableInRegister(first, firstId, reg1, memoryTable, instructions);
+
+        loadVariableInRegister(second, secondId, reg2, memoryTable, instructions);
 
         if (isFirstVarFloat || isSecondVarFloat) {
-            branchType = IrBranchesToMipsForFloats.get(irInstruction.getOperation());
+            branchType = IrBranchesToMipsForFloats.get(irInstruction.getOpcode());
+            // int operand is converted once it is loaded
             if (isSecondVarFloat && !isFirstVarFloat) {
-                String sourceRegister = reg1;
+                Register sourceRegister = reg1;
                 reg1 = tempFloatRegisters.get(0);
                 instructions.add(generateMoveIntRegisterToFloatRegister(reg1, sourceRegister));
                 instructions.add(generateConvertFloatToInt(reg1, reg1));
             }
             if (isFirstVarFloat && !isSecondVarFloat) {
-                String sourceRegister = reg2;
+                Register sourceRegister = reg2;
                 reg2 = tempFloatRegisters.get(1);
                 instructions.add(generateMoveIntRegisterToFloatRegister(reg2, sourceRegister));
                 instructions.add(generateConvertFloatToInt(reg2, reg2));
             }
         }
 
-        instructions.addAll(loadVariableInRegister(first, reg1, memoryTable));
-
-        instructions.addAll(loadVariableInRegister(second, reg2, memoryTable));
-
         if (isFirstVarFloat || isSecondVarFloat) {
             instructions.add(generateFloatBranchInstruction(branchType, reg1, reg2));
-            if (NotSupportedIrBranchesForFloats.contains(irInstruction.getOperation())) {
+            if (NotSupportedIrBranchesForFloats.contains(irInstruction.getOpcode())) {
                 instructions.add(generateBranchFalse(label));
             } else {
                 instructions.add(generateBranchTrue(label));
@@ -562,117 +865,121 @@ public class CodeGenerator {
         } else {
             instructions.add(generateIntegerBranchInstruction(branchType, reg1, reg2, label));
         }
-
-        return instructions;
     }
 
-    private List<String> generateGoto(IRInstruction irInstruction) {
-        List<String> instructions = new ArrayList<>();
+    private void generateGoto(IRInstruction irInstruction, List<MipsInstruction> instructions) {
         instructions.add(generateJumpInstruction(irInstruction.getArguments().get(0)));
-        return instructions;
     }
 
 
-    public List<String> generateStandardFunctions() {
-        return List.of("_lprinti:",
-                "\tli $v0, 1",
-                "\tsyscall",
-                "\tli $a0, 10",
-                "\tli $v0, 11",
-                "\tsyscall",
-                "\tjr $ra",
-                "_lprintf:",
-                "\tli $v0, 2",
-                "\tsyscall",
-                "\tli $a0, 10",
-                "\tli $v0, 11",
-                "\tsyscall",
-                "\tjr $ra",
-                "_lnot:",
-                "\tbne $a0, $zero, __ret_zero_start",
-                "\tli $v0, 1",
-                "\tj __ret_zero_end",
-                "__ret_zero_start:",
-                "\tli $v0, 0",
-                "__ret_zero_end:",
-                "\tjr $ra",
-                "_lexit:",
-                "\tli $v0, 17",
-                "\tsyscall",
-                "\tjr $ra",
-                "\n");
+    public List<MipsInstruction> generateStandardFunctions() {
+        return List.of(MipsInstruction.label("_lprinti"),
+                MipsInstruction.loadConstant(Opcode.LI, Register.V0, "1"),
+                MipsInstruction.of(Opcode.SYSCALL),
+                MipsInstruction.loadConstant(Opcode.LI, Register.A0, "10"),
+                MipsInstruction.loadConstant(Opcode.LI, Register.V0, "11"),
+                MipsInstruction.of(Opcode.SYSCALL),
+                MipsInstruction.of(Opcode.JR, Register.RA),
+                MipsInstruction.label("_lprintf"),
+                MipsInstruction.loadConstant(Opcode.LI, Register.V0, "2"),
+                MipsInstruction.of(Opcode.SYSCALL),
+                MipsInstruction.loadConstant(Opcode.LI, Register.A0, "10"),
+                MipsInstruction.loadConstant(Opcode.LI, Register.V0, "11"),
+                MipsInstruction.of(Opcode.SYSCALL),
+                MipsInstruction.of(Opcode.JR, Register.RA),
+                MipsInstruction.label("_lnot"),
+                MipsInstruction.branch(Opcode.BNE, Register.A0, Register.ZERO, "__ret_zero_start"),
+                MipsInstruction.loadConstant(Opcode.LI, Register.V0, "1"),
+                MipsInstruction.jump(Opcode.J, "__ret_zero_end"),
+                MipsInstruction.label("__ret_zero_start"),
+                MipsInstruction.loadConstant(Opcode.LI, Register.V0, "0"),
+                MipsInstruction.label("__ret_zero_end"),
+                MipsInstruction.of(Opcode.JR, Register.RA),
+                MipsInstruction.label("_lexit"),
+                MipsInstruction.loadConstant(Opcode.LI, Register.V0, "17"),
+                MipsInstruction.of(Opcode.SYSCALL),
+                MipsInstruction.of(Opcode.JR, Register.RA));
+    }
+
+    private MipsInstruction generateLabel(IRInstruction irInstruction) {
+        String label = irInstruction.getOperation();
+        return MipsInstruction.label(label.substring(0, label.length() - 1));
+    }
+
+    private MipsInstruction generateLoadConstantInRegisterInstruction(Register register, String constant, boolean coprocessor) {
+        return MipsInstruction.loadConstant(coprocessor? Opcode.LI_S : Opcode.LI, register, constant);
+    }
+
+    private MipsInstruction generateLoadVariableInRegisterInstruction(Register registerToLoad, int variableOffset, Register addressRegister) {
+        return MipsInstruction.memory(registerToLoad.isFloat()? Opcode.L_S : Opcode.LW, registerToLoad, variableOffset, addressRegister);
     }
 
-    private String generateLoadConstantInRegisterInstruction(String register, String constant, boolean coprocessor) {
-        return coprocessor? String.format(LOAD_CONSTANT_IN_REGISTER_TEMPLATE_FLOAT, register, constant)
-                : String.format(LOAD_CONSTANT_IN_REGISTER_TEMPLATE, register, constant);
+    private MipsInstruction generateLoadVariableInRegisterInstruction(Register registerToLoad, String label, Register addressRegister) {
+        return MipsInstruction.memory(registerToLoad.isFloat()? Opcode.L_S : Opcode.LW, registerToLoad, label, 0, addressRegister);
     }
 
-    private String generateLoadVariableInRegisterInstruction(String registerToLoad, String variableOffset, String addressRegister, boolean coprocessor) {
-        return coprocessor? String.format(LOAD_VARIABLE_IN_REGISTER_TEMPLATE_FLOAT, registerToLoad, variableOffset, addressRegister)
-                : String.format(LOAD_VARIABLE_IN_REGISTER_TEMPLATE, registerToLoad, variableOffset, addressRegister);
+    private MipsInstruction generateStoreVariableFromRegisterInstruction(Register registerFromStore, int variableOffset, Register addressRegister) {
+        return MipsInstruction.memory(registerFromStore.isFloat()? Opcode.S_S : Opcode.SW, registerFromStore, variableOffset, addressRegister);
     }
 
-    private String generateStoreVariableFromRegisterInstruction(String registerFromStore, String variableOffset, String addressRegister, boolean coprocessor) {
-        return coprocessor? String.format(STORE_VARIABLE_FROM_REGISTER_TEMPLATE_FLOAT, registerFromStore, variableOffset, addressRegister)
-                : String.format(STORE_VARIABLE_FROM_REGISTER_TEMPLATE, registerFromStore, variableOffset, addressRegister);
+    private MipsInstruction generateStoreVariableFromRegisterInstruction(Register registerFromStore, String label, Register addressRegister) {
+        return MipsInstruction.memory(registerFromStore.isFloat()? Opcode.S_S : Opcode.SW, registerFromStore, label, 0, addressRegister);
     }
 
-    private String generateRegisterToRegisterMove(String destRegister, String srcRegister, boolean coprocessor) {
-        return coprocessor? String.format(REGISTER_TO_REGISTER_MOVE_TEMPLATE_FLOAT, destRegister, srcRegister)
-                : String.format(REGISTER_TO_REGISTER_MOVE_TEMPLATE, destRegister, srcRegister);
+    private MipsInstruction generateRegisterToRegisterMove(Register destRegister, Register srcRegister) {
+        return MipsInstruction.of(destRegister.isFloat()? Opcode.MOV_S : Opcode.MOVE, destRegister, srcRegister);
     }
 
-    private String generateMoveIntRegisterToFloatRegister(String destRegister, String srcRegister) {
-        return String.format(MOVE_INT_REGISTER_TO_FLOAT_REGISTER, srcRegister, destRegister);
+    private MipsInstruction generateMoveIntRegisterToFloatRegister(Register destRegister, Register srcRegister) {
+        return MipsInstruction.of(Opcode.MTC1, srcRegister, destRegister);
     }
 
-    private String generateConvertFloatToInt(String destRegister, String sourceRegister) {
-        return String.format(CONVERT_INT_TO_FLOAT, destRegister, sourceRegister);
+    private MipsInstruction generateMoveFloatRegisterToIntRegister(Register destRegister, Register srcRegister) {
+        return MipsInstruction.of(Opcode.MFC1, destRegister, srcRegister);
     }
 
-    private String generateFloatBranchInstruction(String branchType, String register1, String register2) {
-        return String.format(FLOAT_BRANCH_INSTRUCTION, branchType, register1, register2);
+    private MipsInstruction generateConvertFloatToInt(Register destRegister, Register sourceRegister) {
+        return MipsInstruction.of(Opcode.CVT_S_W, destRegister, sourceRegister);
     }
 
-    private String generateIntegerBranchInstruction(String branchType, String register1, String register2, String label) {
-        return String.format(BRANCH_AND_ARITHMETIC_INSTRUCTION_TEMPLATE, branchType, register1, register2, label);
+    private MipsInstruction generateFloatBranchInstruction(Opcode branchType, Register register1, Register register2) {
+        return MipsInstruction.of(branchType, register1, register2);
     }
 
-    private String generateArithmeticInstruction(String operation, String saveRegister, String register1, String register2) {
-        return String.format(BRANCH_AND_ARITHMETIC_INSTRUCTION_TEMPLATE, operation, saveRegister, register1, register2);
+    private MipsInstruction generateIntegerBranchInstruction(Opcode branchType, Register register1, Register register2, String label) {
+        return MipsInstruction.branch(branchType, register1, register2, label);
     }
 
-    private String generateStaticVariableInstruction(String variableName, int size) {
-        return String.format(STATIC_VARIABLE_TEMPLATE, variableName, size);
+    private MipsInstruction generateArithmeticInstruction(Opcode operation, Register saveRegister, Register register1, Register register2) {
+        return MipsInstruction.of(operation, saveRegister, register1, register2);
     }
 
-    private String generateBranchTrue(String labelName) {
-        return String.format(BRANCH_TRUE_FLOAT, labelName);
+    private MipsInstruction generateBranchTrue(String labelName) {
+        return MipsInstruction.jump(Opcode.BC1T, labelName);
     }
 
-    private String generateBranchFalse(String labelName) {
-        return String.format(BRANCH_FALSE_FLOAT, labelName);
+    private MipsInstruction generateBranchFalse(String labelName) {
+        return MipsInstruction.jump(Opcode.BC1F, labelName);
     }
 
-    private String generateJumpInstruction(String labelName) {
-        return String.format(GOTO_TEMPLATE, labelName);
+    private MipsInstruction generateJumpInstruction(String labelName) {
+        return MipsInstruction.jump(Opcode.J, labelName);
     }
 
-    private String generateJalInstruction(String functionName) {
-        return String.format(JAL_TEMPLATE, functionName);
+    private MipsInstruction generateJalInstruction(String functionName) {
+        return MipsInstruction.jump(Opcode.JAL, functionName);
     }
 
-    private String generateJrInstruction() {
-        return "\tjr $ra";
+    private MipsInstruction generateJrInstruction() {
+        return MipsInstruction.of(Opcode.JR, Register.RA);
     }
 
-    private String generateIncreaseStackPointer(int increaseBy) {
-        return String.format(INCREASE_STACK_POINTER_TEMPLATE, increaseBy);
+    private MipsInstruction generateStackPointerAdjustment(int adjustBy) {
+        return MipsInstruction.of(Opcode.ADDI, Register.SP, Register.SP, adjustBy);
     }
 
-    private String generateDecreaseStackPointer(int decreaseBy) {
-        return String.format(DECREASE_STACK_POINTER_TEMPLATE, decreaseBy);
+    private static boolean isFloatOperand(String operand, int id, MemoryTable memoryTable) {
+        return id == SymbolTable.NO_SYMBOL ? isFloatConstant(operand) : memoryTable.isVariableFloat(id);
     }
 
     public static boolean isIntegerConstant(String variable) {
@@ -0,0 +1,151 @@
+package codegen.mips;
+
+/**
+ * one line of generated assembly
+ * which operands are set depends on the format of the opcode, see appendTo for the mapping
+ */
+public class MipsInstruction {
+    private final Opcode opcode;
+    private final Register first;
+    private final Register second;
+    private final Register third;
+    private final int immediate;
+    // label, static variable name or constant as written in the IR
+    private final String symbol;
+
+    private MipsInstruction(Opcode opcode, Register first, Register second, Register third, int immediate, String symbol) {
+        this.opcode = opcode;
+        this.first = first;
+        this.second = second;
+        this.third = third;
+        this.immediate = immediate;
+        this.symbol = symbol;
+    }
+
+    public static MipsInstruction of(Opcode opcode) {
+        return new MipsInstruction(opcode, null, null, null, 0, null);
+    }
+
+    public static MipsInstruction of(Opcode opcode, Register first) {
+        return new MipsInstruction(opcode, first, null, null, 0, null);
+    }
+
+    public static MipsInstruction of(Opcode opcode, Register first, Register second) {
+        return new MipsInstruction(opcode, first, second, null, 0, null);
+    }
+
+    public static MipsInstruction of(Opcode opcode, Register first, Register second, Register third) {
+        return new MipsInstruction(opcode, first, second, third, 0, null);
+    }
+
+    public static MipsInstruction of(Opcode opcode, Register first, Register second, int immediate) {
+        return new MipsInstruction(opcode, first, second, null, immediate, null);
+    }
+
+    /**
+     * li / li.s with the constant text from the IR
+     */
+    public static MipsInstruction loadConstant(Opcode opcode, Register register, String constant) {
+        return new MipsInstruction(opcode, register, null, null, 0, constant);
+    }
+
+    /**
+     * load or store at offset(base)
+     */
+    public static MipsInstruction memory(Opcode opcode, Register register, int offset, Register base) {
+        return new MipsInstruction(opcode, register, base, null, offset, null);
+    }
+
+    /**
+     * load or store at label+offset(base)
+     */
+    public static MipsInstruction memory(Opcode opcode, Register register, String label, int offset, Register base) {
+        return new MipsInstruction(opcode, register, base, null, offset, label);
+    }
+
+    public static MipsInstruction branch(Opcode opcode, Register first, Register second, String label) {
+        return new MipsInstruction(opcode, first, second, null, 0, label);
+    }
+
+    public static MipsInstruction jump(Opcode opcode, String label) {
+        return new MipsInstruction(opcode, null, null, null, 0, label);
+    }
+
+    public static MipsInstruction label(String name) {
+        return new MipsInstruction(Opcode.LABEL, null, null, null, 0, name);
+    }
+
+    public static MipsInstruction space(String name, int size) {
+        return new MipsInstruction(Opcode.SPACE, null, null, null, size, name);
+    }
+
+    public Opcode getOpcode() {
+        return opcode;
+    }
+
+    public Register getFirst() {
+        return first;
+    }
+
+    public Register getSecond() {
+        return second;
+    }
+
+    public Register getThird() {
+        return third;
+    }
+
+    public int getImmediate() {
+        return immediate;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void appendTo(StringBuilder builder) {
+        switch (opcode.getFormat()) {
+            case LABEL -> builder.append(symbol).append(':');
+            case SECTION -> builder.append(opcode.getMnemonic());
+            case SPACE -> builder.append('\t').append(symbol).append(": .space ").append(immediate);
+            default -> {
+                builder.append('\t').append(opcode.getMnemonic());
+                appendOperands(builder);
+            }
+        }
+    }
+
+    private void appendOperands(StringBuilder builder) {
+        switch (opcode.getFormat()) {
+            case ONE_REGISTER -> builder.append(' ').append(first.getName());
+            case TWO_REGISTERS -> builder.append(' ').append(first.getName()).append(", ").append(second.getName());
+            case THREE_REGISTERS -> builder.append(' ').append(first.getName()).append(", ").append(second.getName())
+                    .append(", ").append(third.getName());
+            case TWO_REGISTERS_IMMEDIATE -> builder.append(' ').append(first.getName()).append(", ").append(second.getName())
+                    .append(", ").append(immediate);
+            case REGISTER_IMMEDIATE -> builder.append(' ').append(first.getName()).append(", ").append(symbol);
+            case MEMORY -> {
+                builder.append(' ').append(first.getName()).append(", ");
+                if (symbol != null) {
+                    builder.append(symbol);
+                    if (immediate != 0) builder.append(immediate > 0 ? "+" : "").append(immediate);
+                } else {
+                    builder.append(immediate);
+                }
+                builder.append('(').append(second.getName()).append(')');
+            }
+            case BRANCH -> builder.append(' ').append(first.getName()).append(", ").append(second.getName())
+                    .append(", ").append(symbol);
+            case JUMP -> builder.append(' ').append(symbol);
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        appendTo(builder);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package codegen.mips;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * renders instructions into one reusable buffer and hands it to the writer in large chunks
+ * not thread safe, every writer thread needs its own printer
+ */
+public class MipsPrinter {
+    private static final int FLUSH_THRESHOLD = 1 << 15;
+
+    private final StringBuilder buffer;
+    private char[] chunk;
+
+    public MipsPrinter() {
+        buffer = new StringBuilder(FLUSH_THRESHOLD + 256);
+        chunk = new char[FLUSH_THRESHOLD + 256];
+    }
+
+    public void print(List<MipsInstruction> instructions, Writer writer) throws IOException {
+        for (MipsInstruction instruction : instructions) {
+            instruction.appendTo(buffer);
+            buffer.append('\n');
+            if (buffer.length() >= FLUSH_THRESHOLD) flush(writer);
+        }
+        flush(writer);
+    }
+
+    private void flush(Writer writer) throws IOException {
+        int length = buffer.length();
+        if (length > chunk.length) chunk = new char[length];
+        buffer.getChars(0, length, chunk, 0);
+        writer.write(chunk, 0, length);
+        buffer.setLength(0);
+    }
+}
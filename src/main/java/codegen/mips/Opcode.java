@@ -0,0 +1,82 @@
+package codegen.mips;
+
+public enum Opcode {
+    // int registers
+    LI("li", Format.REGISTER_IMMEDIATE),
+    LW("lw", Format.MEMORY),
+    SW("sw", Format.MEMORY),
+    MOVE("move", Format.TWO_REGISTERS),
+    ADD("add", Format.THREE_REGISTERS),
+    ADDI("addi", Format.TWO_REGISTERS_IMMEDIATE),
+    SLL("sll", Format.TWO_REGISTERS_IMMEDIATE),
+    SUB("sub", Format.THREE_REGISTERS),
+    MUL("mul", Format.THREE_REGISTERS),
+    DIV("div", Format.THREE_REGISTERS),
+    AND("and", Format.THREE_REGISTERS),
+    OR("or", Format.THREE_REGISTERS),
+    BEQ("beq", Format.BRANCH),
+    BNE("bne", Format.BRANCH),
+    BLT("blt", Format.BRANCH),
+    BGT("bgt", Format.BRANCH),
+    BLE("ble", Format.BRANCH),
+    BGE("bge", Format.BRANCH),
+    J("j", Format.JUMP),
+    JAL("jal", Format.JUMP),
+    JR("jr", Format.ONE_REGISTER),
+    SYSCALL("syscall", Format.NONE),
+
+    // float registers
+    LI_S("li.s", Format.REGISTER_IMMEDIATE),
+    L_S("l.s", Format.MEMORY),
+    S_S("s.s", Format.MEMORY),
+    MOV_S("mov.s", Format.TWO_REGISTERS),
+    MTC1("mtc1", Format.TWO_REGISTERS),
+    MFC1("mfc1", Format.TWO_REGISTERS),
+    CVT_S_W("cvt.s.w", Format.TWO_REGISTERS),
+    ADD_S("add.s", Format.THREE_REGISTERS),
+    SUB_S("sub.s", Format.THREE_REGISTERS),
+    MUL_S("mul.s", Format.THREE_REGISTERS),
+    DIV_S("div.s", Format.THREE_REGISTERS),
+    C_EQ_S("c.eq.s", Format.TWO_REGISTERS),
+    C_LT_S("c.lt.s", Format.TWO_REGISTERS),
+    C_LE_S("c.le.s", Format.TWO_REGISTERS),
+    BC1T("bc1t", Format.JUMP),
+    BC1F("bc1f", Format.JUMP),
+
+    // not instructions
+    LABEL("", Format.LABEL),
+    DATA_SECTION(".data", Format.SECTION),
+    TEXT_SECTION(".text", Format.SECTION),
+    SPACE(".space", Format.SPACE);
+
+    public enum Format {
+        NONE,
+        ONE_REGISTER,
+        TWO_REGISTERS,
+        THREE_REGISTERS,
+        TWO_REGISTERS_IMMEDIATE,
+        REGISTER_IMMEDIATE,
+        MEMORY,
+        BRANCH,
+        JUMP,
+        LABEL,
+        SECTION,
+        SPACE
+    }
+
+    private final String mnemonic;
+    private final Format format;
+
+    Opcode(String mnemonic, Format format) {
+        this.mnemonic = mnemonic;
+        this.format = format;
+    }
+
+    public String getMnemonic() {
+        return mnemonic;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+}
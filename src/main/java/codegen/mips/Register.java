@@ -0,0 +1,55 @@
+package codegen.mips;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public enum Register {
+    ZERO("$zero"),
+    V0("$v0"),
+    A0("$a0"), A1("$a1"), A2("$a2"), A3("$a3"),
+    T0("$t0"), T1("$t1"), T2("$t2"), T3("$t3"), T4("$t4"), T5("$t5"), T6("$t6"), T7("$t7"), T8("$t8"), T9("$t9"),
+    S0("$s0"), S1("$s1"), S2("$s2"), S3("$s3"), S4("$s4"), S5("$s5"), S6("$s6"), S7("$s7"),
+    SP("$sp"),
+    RA("$ra"),
+    F0("$f0"), F2("$f2"), F4("$f4"), F6("$f6"), F8("$f8"), F10("$f10"), F12("$f12"), F14("$f14"),
+    F16("$f16"), F18("$f18"), F20("$f20"), F22("$f22"), F24("$f24"), F26("$f26"), F28("$f28"), F30("$f30");
+
+    private static final Map<String, Register> byName = new HashMap<>();
+
+    static {
+        for (Register register : values()) {
+            byName.put(register.name, register);
+        }
+    }
+
+    private final String name;
+
+    Register(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * returns whether the register belongs to the floating point coprocessor
+     */
+    public boolean isFloat() {
+        return ordinal() >= F0.ordinal();
+    }
+
+    /**
+     * returns register with the given assembly name, e.g. "$t0"
+     */
+    public static Register of(String name) {
+        Register register = byName.get(name);
+        if (register == null) throw new IllegalArgumentException("unknown register " + name);
+        return register;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,29 @@
+package codegen.peephole;
+
+import codegen.mips.MipsInstruction;
+import codegen.mips.Opcode;
+import codegen.mips.Register;
+
+import java.util.List;
+
+/**
+ * drops li $t2, 4 when $t2 was loaded with the same constant and not written since
+ */
+public class ConstantReuse implements PeepholeRule {
+
+    @Override
+    public MipsInstruction apply(MipsInstruction instruction, List<MipsInstruction> emitted, int window) {
+        Opcode opcode = instruction.getOpcode();
+        if (opcode != Opcode.LI && opcode != Opcode.LI_S) return instruction;
+        Register destination = instruction.getFirst();
+        int end = Math.max(0, emitted.size() - window);
+        for (int i = emitted.size() - 1; i >= end; i--) {
+            MipsInstruction previous = emitted.get(i);
+            if (Instructions.isBarrier(previous)) break;
+            if (Instructions.getDefinedRegister(previous) != destination) continue;
+            boolean sameConstant = previous.getOpcode() == opcode && previous.getSymbol().equals(instruction.getSymbol());
+            return sameConstant ? null : instruction;
+        }
+        return instruction;
+    }
+}
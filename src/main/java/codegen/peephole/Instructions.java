@@ -0,0 +1,70 @@
+package codegen.peephole;
+
+import codegen.mips.MipsInstruction;
+import codegen.mips.Opcode;
+import codegen.mips.Register;
+
+/**
+ * operand roles of MIPS instructions shared by the peephole rules
+ */
+final class Instructions {
+
+    private Instructions() {
+    }
+
+    /**
+     * returns whether register contents known before the instruction can not be assumed after it:
+     * control may enter at a label, calls and syscalls clobber registers and memory, nothing falls through a jump
+     */
+    static boolean isBarrier(MipsInstruction instruction) {
+        return switch (instruction.getOpcode()) {
+            case LABEL, J, JAL, JR, SYSCALL, DATA_SECTION, TEXT_SECTION, SPACE -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * returns register written by the instruction, null if it writes none
+     */
+    static Register getDefinedRegister(MipsInstruction instruction) {
+        Opcode opcode = instruction.getOpcode();
+        return switch (opcode) {
+            case MTC1 -> instruction.getSecond();
+            case SW, S_S, C_EQ_S, C_LT_S, C_LE_S -> null;
+            default -> switch (opcode.getFormat()) {
+                case ONE_REGISTER, BRANCH, JUMP, NONE, LABEL, SECTION, SPACE -> null;
+                default -> instruction.getFirst();
+            };
+        };
+    }
+
+    static boolean isLoad(MipsInstruction instruction) {
+        return instruction.getOpcode() == Opcode.LW || instruction.getOpcode() == Opcode.L_S;
+    }
+
+    static boolean isStore(MipsInstruction instruction) {
+        return instruction.getOpcode() == Opcode.SW || instruction.getOpcode() == Opcode.S_S;
+    }
+
+    /**
+     * returns whether the address of a load or store is a fixed word: a stack slot or a static variable
+     * any other base register holds a computed array element address which may alias every word
+     */
+    static boolean hasKnownAddress(MipsInstruction access) {
+        Register base = access.getSecond();
+        return base == Register.SP || (base == Register.ZERO && access.getSymbol() != null);
+    }
+
+    static boolean haveSameAddress(MipsInstruction first, MipsInstruction second) {
+        return first.getSecond() == second.getSecond() && first.getImmediate() == second.getImmediate()
+                && (first.getSymbol() == null ? second.getSymbol() == null : first.getSymbol().equals(second.getSymbol()));
+    }
+
+    /**
+     * returns copy of source into destination, null if the copy is a no-op or crosses register files
+     */
+    static MipsInstruction move(Register destination, Register source) {
+        if (destination == source || destination.isFloat() != source.isFloat()) return null;
+        return MipsInstruction.of(destination.isFloat() ? Opcode.MOV_S : Opcode.MOVE, destination, source);
+    }
+}
@@ -0,0 +1,48 @@
+package codegen.peephole;
+
+import codegen.mips.MipsInstruction;
+import codegen.mips.Opcode;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * drops jumps and branches to the label which directly follows them, control gets there anyway
+ * the rule runs when the label is emitted and removes the jump from the end of the emitted instructions
+ */
+public class JumpToNextLabelRemoval implements PeepholeRule {
+
+    @Override
+    public MipsInstruction apply(MipsInstruction instruction, List<MipsInstruction> emitted, int window) {
+        if (instruction.getOpcode() != Opcode.LABEL) return instruction;
+        // a jump to any label of a run of consecutive labels falls through to all of them
+        Set<String> labels = new HashSet<>();
+        labels.add(instruction.getSymbol());
+        int last = emitted.size() - 1;
+        int end = Math.max(0, emitted.size() - window);
+        while (last >= end) {
+            MipsInstruction previous = emitted.get(last);
+            if (previous.getOpcode() == Opcode.LABEL) {
+                labels.add(previous.getSymbol());
+                last--;
+            } else if (isJumpTo(previous, labels)) {
+                emitted.remove(last);
+                last--;
+            } else {
+                break;
+            }
+        }
+        return instruction;
+    }
+
+    /**
+     * jal returns behind itself and is never dropped, c.*.s before a dropped bc1t / bc1f is left without effect
+     */
+    private static boolean isJumpTo(MipsInstruction instruction, Set<String> labels) {
+        return switch (instruction.getOpcode()) {
+            case J, BC1T, BC1F -> labels.contains(instruction.getSymbol());
+            default -> instruction.getOpcode().getFormat() == Opcode.Format.BRANCH && labels.contains(instruction.getSymbol());
+        };
+    }
+}
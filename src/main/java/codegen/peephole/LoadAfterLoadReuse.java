@@ -0,0 +1,14 @@
+package codegen.peephole;
+
+import codegen.mips.MipsInstruction;
+
+/**
+ * a second load of the same word reuses the register of the first one
+ */
+public class LoadAfterLoadReuse extends MemoryForwarding {
+
+    @Override
+    protected boolean forwardsFrom(MipsInstruction access) {
+        return Instructions.isLoad(access);
+    }
+}
@@ -0,0 +1,52 @@
+package codegen.peephole;
+
+import codegen.mips.MipsInstruction;
+import codegen.mips.Register;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * replaces a load of a word whose value is still in a register by a move from that register
+ * the register is found in the last store to or load from the same address within the window
+ */
+abstract class MemoryForwarding implements PeepholeRule {
+
+    /**
+     * returns whether the value register of an earlier access to the loaded address may be used
+     */
+    protected abstract boolean forwardsFrom(MipsInstruction access);
+
+    @Override
+    public MipsInstruction apply(MipsInstruction instruction, List<MipsInstruction> emitted, int window) {
+        if (!Instructions.isLoad(instruction) || !Instructions.hasKnownAddress(instruction)) return instruction;
+        Set<Register> defined = EnumSet.noneOf(Register.class);
+        int end = Math.max(0, emitted.size() - window);
+        for (int i = emitted.size() - 1; i >= end; i--) {
+            MipsInstruction previous = emitted.get(i);
+            if (Instructions.isBarrier(previous)) break;
+            if (Instructions.isStore(previous)) {
+                if (!Instructions.hasKnownAddress(previous)) break;
+                if (Instructions.haveSameAddress(previous, instruction)) {
+                    // the last store decides the value, older accesses are stale
+                    return forwardsFrom(previous) ? forward(instruction, previous.getFirst(), defined) : instruction;
+                }
+            } else if (Instructions.isLoad(previous) && Instructions.haveSameAddress(previous, instruction)
+                    && forwardsFrom(previous) && !defined.contains(previous.getFirst())) {
+                return forward(instruction, previous.getFirst(), defined);
+            }
+            Register definedRegister = Instructions.getDefinedRegister(previous);
+            if (definedRegister != null) defined.add(definedRegister);
+            // stack slots move with the stack pointer
+            if (definedRegister == Register.SP) break;
+        }
+        return instruction;
+    }
+
+    private static MipsInstruction forward(MipsInstruction load, Register source, Set<Register> defined) {
+        Register destination = load.getFirst();
+        if (defined.contains(source) || destination.isFloat() != source.isFloat()) return load;
+        return Instructions.move(destination, source);
+    }
+}
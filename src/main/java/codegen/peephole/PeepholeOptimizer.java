@@ -0,0 +1,67 @@
+package codegen.peephole;
+
+import codegen.mips.MipsInstruction;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * rewrites the instructions of one function through a window over the already optimized instructions
+ * every instruction passes the rules in order, so a rule sees what the rules before it made of the instruction
+ */
+public class PeepholeOptimizer {
+    public static final int DEFAULT_WINDOW = 16;
+
+    private static final Map<String, Supplier<PeepholeRule>> rulesByName = new LinkedHashMap<>();
+
+    static {
+        rulesByName.put("store-load", StoreToLoadForwarding::new);
+        rulesByName.put("load-load", LoadAfterLoadReuse::new);
+        rulesByName.put("constant", ConstantReuse::new);
+        rulesByName.put("move", RedundantMoveRemoval::new);
+        rulesByName.put("jump", JumpToNextLabelRemoval::new);
+    }
+
+    private final List<PeepholeRule> rules;
+    private final int window;
+
+    public PeepholeOptimizer(List<PeepholeRule> rules, int window) {
+        this.rules = rules;
+        this.window = window;
+    }
+
+    /**
+     * returns optimizer with every rule
+     */
+    public PeepholeOptimizer(int window) {
+        this(getRules(List.copyOf(rulesByName.keySet())), window);
+    }
+
+    /**
+     * returns rules with the given names: store-load, load-load, constant, move and jump
+     */
+    public static List<PeepholeRule> getRules(List<String> names) {
+        List<PeepholeRule> rules = new ArrayList<>();
+        for (String name : names) {
+            Supplier<PeepholeRule> rule = rulesByName.get(name.trim());
+            if (rule == null) throw new IllegalArgumentException("unknown peephole rule " + name + ", expected one of " + rulesByName.keySet());
+            rules.add(rule.get());
+        }
+        return rules;
+    }
+
+    public List<MipsInstruction> optimize(List<MipsInstruction> instructions) {
+        List<MipsInstruction> optimized = new ArrayList<>(instructions.size());
+        for (MipsInstruction instruction : instructions) {
+            for (PeepholeRule rule : rules) {
+                instruction = rule.apply(instruction, optimized, window);
+                if (instruction == null) break;
+            }
+            if (instruction != null) optimized.add(instruction);
+        }
+        return optimized;
+    }
+}
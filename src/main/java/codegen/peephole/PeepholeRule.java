@@ -0,0 +1,18 @@
+package codegen.peephole;
+
+import codegen.mips.MipsInstruction;
+
+import java.util.List;
+
+/**
+ * one rewrite of the peephole optimizer
+ * rules are stateless, one instance is shared by all functions and threads
+ */
+public interface PeepholeRule {
+    /**
+     * returns instruction to emit in place of the given one, null to drop it
+     * emitted holds the already optimized instructions of the function, a rule looks at and may remove
+     * at most the last window of them
+     */
+    MipsInstruction apply(MipsInstruction instruction, List<MipsInstruction> emitted, int window);
+}
@@ -0,0 +1,36 @@
+package codegen.peephole;
+
+import codegen.mips.MipsInstruction;
+import codegen.mips.Opcode;
+import codegen.mips.Register;
+
+import java.util.List;
+
+/**
+ * drops move $t0, $t0 and a move between two registers which already hold the same value
+ * because an earlier move between them in either direction is still valid
+ */
+public class RedundantMoveRemoval implements PeepholeRule {
+
+    @Override
+    public MipsInstruction apply(MipsInstruction instruction, List<MipsInstruction> emitted, int window) {
+        Opcode opcode = instruction.getOpcode();
+        if (opcode != Opcode.MOVE && opcode != Opcode.MOV_S) return instruction;
+        Register destination = instruction.getFirst();
+        Register source = instruction.getSecond();
+        if (destination == source) return null;
+        int end = Math.max(0, emitted.size() - window);
+        for (int i = emitted.size() - 1; i >= end; i--) {
+            MipsInstruction previous = emitted.get(i);
+            if (Instructions.isBarrier(previous)) break;
+            if (previous.getOpcode() == opcode
+                    && ((previous.getFirst() == destination && previous.getSecond() == source)
+                    || (previous.getFirst() == source && previous.getSecond() == destination))) {
+                return null;
+            }
+            Register defined = Instructions.getDefinedRegister(previous);
+            if (defined == destination || defined == source) break;
+        }
+        return instruction;
+    }
+}
@@ -0,0 +1,14 @@
+package codegen.peephole;
+
+import codegen.mips.MipsInstruction;
+
+/**
+ * sw $t2, 24($sp) followed by lw $t0, 24($sp) loads what $t2 still holds, the load becomes move $t0, $t2
+ */
+public class StoreToLoadForwarding extends MemoryForwarding {
+
+    @Override
+    protected boolean forwardsFrom(MipsInstruction access) {
+        return Instructions.isStore(access);
+    }
+}
@@ -5,13 +5,22 @@ import java.util.List;
 public class IRInstruction {
     private final String operationName;
     private final List<String> argumentNames;
+    // symbol id of every argument, SymbolTable.NO_SYMBOL for constants
+    private final int[] argumentIds;
 
+    private final IROpcode opcode;
     private final InstructionType instructionType;
 
-    public IRInstruction(String operationName, List<String> argumentNames, InstructionType instructionType) {
+    public IRInstruction(String operationName, List<String> argumentNames, IROpcode opcode, SymbolTable symbols) {
         this.operationName = operationName;
         this.argumentNames = argumentNames;
-        this.instructionType = instructionType;
+        this.opcode = opcode;
+        this.instructionType = opcode.getInstructionType();
+        this.argumentIds = new int[argumentNames.size()];
+        for (int i = 0; i < argumentIds.length; i++) {
+            String argument = argumentNames.get(i);
+            argumentIds[i] = SymbolTable.isConstant(argument) ? SymbolTable.NO_SYMBOL : symbols.intern(argument);
+        }
     }
 
     public String getOperation() {
@@ -22,10 +31,69 @@ public class IRInstruction {
         return argumentNames;
     }
 
+    /**
+     * returns symbol id of the i-th argument or SymbolTable.NO_SYMBOL if it is a constant
+     */
+    public int getArgumentId(int i) {
+        return argumentIds[i];
+    }
+
+    public IROpcode getOpcode() {
+        return opcode;
+    }
+
     public InstructionType getInstructionType() {
         return instructionType;
     }
 
+    /**
+     * returns the operand written by this instruction or null if it writes nothing
+     * may be an array name (array initialization / copy), callers filter what they track
+     */
+    public String getDefinedOperand() {
+        switch (instructionType) {
+            case ASSIGN, CALLR, ARRAY_LOAD:
+                return argumentNames.get(0);
+            case ARITHMETIC:
+                return argumentNames.get(2);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * returns the operands read by this instruction
+     * constants are included, labels and function names are not
+     */
+    public List<String> getUsedOperands() {
+        switch (instructionType) {
+            case ASSIGN:
+                return argumentNames.size() == 3 ? argumentNames.subList(2, 3) : argumentNames.subList(1, 2);
+            case ARITHMETIC, BRANCH:
+                return argumentNames.subList(0, 2);
+            case RETURN:
+                return argumentNames;
+            case CALL:
+                return argumentNames.subList(1, argumentNames.size());
+            case CALLR:
+                return argumentNames.subList(2, argumentNames.size());
+            case ARRAY_STORE:
+                return argumentNames.subList(1, 3);
+            case ARRAY_LOAD:
+                return argumentNames.subList(2, 3);
+            default:
+                return List.of();
+        }
+    }
+
+    /**
+     * returns the instruction in the textual IR format it was parsed from
+     */
+    public String toIrString() {
+        if (argumentNames.isEmpty()) return operationName;
+        return operationName + ", " + String.join(", ", argumentNames);
+    }
+
     @Override
     public String toString() {
         return "Instruction{" +
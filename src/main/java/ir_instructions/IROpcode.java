@@ -0,0 +1,64 @@
+package ir_instructions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * every IR operation with its mnemonic and instruction type
+ */
+public enum IROpcode {
+    ASSIGN("assign", InstructionType.ASSIGN),
+    ADD("add", InstructionType.ARITHMETIC),
+    SUB("sub", InstructionType.ARITHMETIC),
+    MULT("mult", InstructionType.ARITHMETIC),
+    DIV("div", InstructionType.ARITHMETIC),
+    AND("and", InstructionType.ARITHMETIC),
+    OR("or", InstructionType.ARITHMETIC),
+    GOTO("goto", InstructionType.GOTO),
+    BREQ("breq", InstructionType.BRANCH),
+    BRNEQ("brneq", InstructionType.BRANCH),
+    BRLT("brlt", InstructionType.BRANCH),
+    BRGT("brgt", InstructionType.BRANCH),
+    BRLEQ("brleq", InstructionType.BRANCH),
+    BRGEQ("brgeq", InstructionType.BRANCH),
+    RETURN("return", InstructionType.RETURN),
+    CALL("call", InstructionType.CALL),
+    CALLR("callr", InstructionType.CALLR),
+    ARRAY_STORE("array_store", InstructionType.ARRAY_STORE),
+    ARRAY_LOAD("array_load", InstructionType.ARRAY_LOAD),
+    // labels have no mnemonic, the operation is the label name followed by ':'
+    LABEL(null, InstructionType.LABEL);
+
+    private static final Map<String, IROpcode> byMnemonic = new HashMap<>();
+
+    static {
+        for (IROpcode opcode : values()) {
+            if (opcode.mnemonic != null) byMnemonic.put(opcode.mnemonic, opcode);
+        }
+    }
+
+    private final String mnemonic;
+    private final InstructionType instructionType;
+
+    IROpcode(String mnemonic, InstructionType instructionType) {
+        this.mnemonic = mnemonic;
+        this.instructionType = instructionType;
+    }
+
+    public String getMnemonic() {
+        return mnemonic;
+    }
+
+    public InstructionType getInstructionType() {
+        return instructionType;
+    }
+
+    /**
+     * returns opcode of the first token of an instruction line, null if it is neither an operation nor a label
+     */
+    public static IROpcode of(String operation) {
+        IROpcode opcode = byMnemonic.get(operation);
+        if (opcode != null) return opcode;
+        return operation.length() > 1 && operation.endsWith(":") ? LABEL : null;
+    }
+}
@@ -0,0 +1,56 @@
+package ir_instructions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * names used by one function mapped to dense ids 0 ... size() - 1
+ * variables, arrays, labels and callee names get ids, numeric constants do not
+ */
+public class SymbolTable {
+    public static final int NO_SYMBOL = -1;
+
+    private final Map<String, Integer> ids;
+    private final List<String> names;
+
+    public SymbolTable() {
+        ids = new HashMap<>();
+        names = new ArrayList<>();
+    }
+
+    /**
+     * returns id of the name, a new one is assigned on first use
+     */
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+        ids.put(name, names.size());
+        names.add(name);
+        return names.size() - 1;
+    }
+
+    /**
+     * returns id of the name or NO_SYMBOL if it was never interned
+     */
+    public int getId(String name) {
+        return ids.getOrDefault(name, NO_SYMBOL);
+    }
+
+    public String getName(int id) {
+        return names.get(id);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * returns whether the operand is a numeric constant, those are never interned
+     */
+    public static boolean isConstant(String operand) {
+        char first = operand.charAt(0);
+        return Character.isDigit(first) || first == '-' || first == '.';
+    }
+}
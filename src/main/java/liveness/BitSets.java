@@ -0,0 +1,45 @@
+package liveness;
+
+/**
+ * helpers for sets of dense ids stored as long[] words
+ */
+public final class BitSets {
+    private BitSets() {
+    }
+
+    public static long[] create(int size) {
+        return new long[(size + 63) >>> 6];
+    }
+
+    public static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    public static void clear(long[] bits, int index) {
+        bits[index >>> 6] &= ~(1L << index);
+    }
+
+    public static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * returns the first set index which is not less than from, -1 if there is none
+     */
+    public static int nextSetBit(long[] bits, int from) {
+        int word = from >>> 6;
+        if (word >= bits.length) return -1;
+        long current = bits[word] & (-1L << from);
+        while (true) {
+            if (current != 0) return (word << 6) + Long.numberOfTrailingZeros(current);
+            if (++word == bits.length) return -1;
+            current = bits[word];
+        }
+    }
+
+    public static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) count += Long.bitCount(word);
+        return count;
+    }
+}
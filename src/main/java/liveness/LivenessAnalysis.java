@@ -0,0 +1,174 @@
+package liveness;
+
+import cfg.ControlFlowGraph;
+import ir_instructions.IRInstruction;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * backward liveness over basic blocks, solved with a worklist
+ * the caller lists the tracked variables, their positions in the list are their dense ids
+ * operands which are not listed (constants, arrays, statics) are ignored
+ * use, def, in and out sets are long[] bitsets, see BitSets
+ */
+public class LivenessAnalysis {
+    private final ControlFlowGraph cfg;
+    private final List<String> variables;
+    private final Map<String, Integer> variableIds;
+    private final long[][] use;
+    private final long[][] def;
+    private final long[][] liveIn;
+    private final long[][] liveOut;
+
+    public LivenessAnalysis(ControlFlowGraph cfg, List<String> variables) {
+        this.cfg = cfg;
+        this.variables = variables;
+        this.variableIds = new HashMap<>();
+        for (int i = 0; i < variables.size(); i++) {
+            variableIds.put(variables.get(i), i);
+        }
+        int blockCount = cfg.getBlockCount();
+        int variableCount = variables.size();
+        use = new long[blockCount][];
+        def = new long[blockCount][];
+        liveIn = new long[blockCount][];
+        liveOut = new long[blockCount][];
+        for (int block = 0; block < blockCount; block++) {
+            use[block] = BitSets.create(variableCount);
+            def[block] = BitSets.create(variableCount);
+            liveIn[block] = BitSets.create(variableCount);
+            liveOut[block] = BitSets.create(variableCount);
+            computeLocalSets(block);
+        }
+        solve();
+    }
+
+    private void computeLocalSets(int block) {
+        List<IRInstruction> instructions = cfg.getInstructions();
+        for (int i = cfg.getBlockStart(block); i < cfg.getBlockEnd(block); i++) {
+            IRInstruction instruction = instructions.get(i);
+            for (String used : instruction.getUsedOperands()) {
+                Integer id = variableIds.get(used);
+                if (id != null && !BitSets.isSet(def[block], id)) BitSets.set(use[block], id);
+            }
+            Integer defined = getDefinedId(instruction);
+            if (defined != null) BitSets.set(def[block], defined);
+        }
+    }
+
+    /**
+     * blocks start on the worklist in reverse order, a block whose in set grows puts its predecessors back
+     */
+    private void solve() {
+        int blockCount = cfg.getBlockCount();
+        int[] worklist = new int[blockCount];
+        boolean[] queued = new boolean[blockCount];
+        int head = 0;
+        int size = blockCount;
+        for (int i = 0; i < blockCount; i++) {
+            worklist[i] = blockCount - 1 - i;
+            queued[blockCount - 1 - i] = true;
+        }
+
+        while (size > 0) {
+            int block = worklist[head];
+            head = (head + 1) % blockCount;
+            size--;
+            queued[block] = false;
+
+            long[] out = liveOut[block];
+            for (int s = 0; s < cfg.getSuccessorCount(block); s++) {
+                long[] in = liveIn[cfg.getSuccessor(block, s)];
+                for (int w = 0; w < out.length; w++) out[w] |= in[w];
+            }
+
+            boolean changed = false;
+            long[] in = liveIn[block];
+            for (int w = 0; w < in.length; w++) {
+                long updated = use[block][w] | (out[w] & ~def[block][w]);
+                if (updated != in[w]) {
+                    in[w] = updated;
+                    changed = true;
+                }
+            }
+
+            if (!changed) continue;
+            for (int p = 0; p < cfg.getPredecessorCount(block); p++) {
+                int predecessor = cfg.getPredecessor(block, p);
+                if (queued[predecessor]) continue;
+                queued[predecessor] = true;
+                worklist[(head + size) % blockCount] = predecessor;
+                size++;
+            }
+        }
+    }
+
+    public ControlFlowGraph getControlFlowGraph() {
+        return cfg;
+    }
+
+    public int getVariableCount() {
+        return variables.size();
+    }
+
+    public String getVariableName(int id) {
+        return variables.get(id);
+    }
+
+    /**
+     * returns id of the variable or null if the analysis does not track it
+     */
+    public Integer getVariableId(String variableName) {
+        return variableIds.get(variableName);
+    }
+
+    public Integer getDefinedId(IRInstruction instruction) {
+        String defined = instruction.getDefinedOperand();
+        return defined == null ? null : variableIds.get(defined);
+    }
+
+    public long[] getUse(int block) {
+        return use[block];
+    }
+
+    public long[] getDef(int block) {
+        return def[block];
+    }
+
+    public long[] getLiveIn(int block) {
+        return liveIn[block];
+    }
+
+    public long[] getLiveOut(int block) {
+        return liveOut[block];
+    }
+
+    public boolean isLiveOut(int block, String variableName) {
+        Integer id = variableIds.get(variableName);
+        return id != null && BitSets.isSet(liveOut[block], id);
+    }
+
+    /**
+     * walks the block backwards from its out set, the callback sees the set alive right after each instruction
+     */
+    public void forEachInstructionBackward(int block, InstructionLiveness callback) {
+        long[] live = liveOut[block].clone();
+        List<IRInstruction> instructions = cfg.getInstructions();
+        for (int i = cfg.getBlockEnd(block) - 1; i >= cfg.getBlockStart(block); i--) {
+            IRInstruction instruction = instructions.get(i);
+            callback.accept(i, instruction, live);
+            Integer defined = getDefinedId(instruction);
+            if (defined != null) BitSets.clear(live, defined);
+            for (String used : instruction.getUsedOperands()) {
+                Integer id = variableIds.get(used);
+                if (id != null) BitSets.set(live, id);
+            }
+        }
+    }
+
+    public interface InstructionLiveness {
+        void accept(int index, IRInstruction instruction, long[] liveAfter);
+    }
+}
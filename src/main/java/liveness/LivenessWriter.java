@@ -0,0 +1,46 @@
+package liveness;
+
+import cfg.ControlFlowGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * renders liveness results: in and out sets of every block and the set alive after every instruction
+ */
+public class LivenessWriter {
+    private final List<String> lines;
+
+    public LivenessWriter() {
+        lines = new ArrayList<>();
+    }
+
+    public void addFunction(String functionName, LivenessAnalysis liveness) {
+        ControlFlowGraph cfg = liveness.getControlFlowGraph();
+        lines.add("function " + functionName);
+        for (int block = 0; block < cfg.getBlockCount(); block++) {
+            lines.add("\tB" + block + " [" + cfg.getBlockStart(block) + ", " + cfg.getBlockEnd(block) + ")");
+            lines.add("\t\tin: " + format(liveness, liveness.getLiveIn(block)));
+            List<String> instructionLines = new ArrayList<>();
+            liveness.forEachInstructionBackward(block, (index, instruction, liveAfter) ->
+                    instructionLines.add("\t\t\t" + instruction.toIrString() + "\t" + format(liveness, liveAfter)));
+            for (int i = instructionLines.size() - 1; i >= 0; i--) {
+                lines.add(instructionLines.get(i));
+            }
+            lines.add("\t\tout: " + format(liveness, liveness.getLiveOut(block)));
+        }
+        lines.add("");
+    }
+
+    public List<String> getLines() {
+        return lines;
+    }
+
+    private static String format(LivenessAnalysis liveness, long[] bits) {
+        List<String> names = new ArrayList<>();
+        for (int id = BitSets.nextSetBit(bits, 0); id >= 0; id = BitSets.nextSetBit(bits, id + 1)) {
+            names.add(liveness.getVariableName(id));
+        }
+        return "{" + String.join(", ", names) + "}";
+    }
+}
@@ -1,14 +1,26 @@
 package main;
 
+import cfg.ControlFlowGraph;
+import cfg.GraphvizWriter;
 import codegen.CodeGenerator;
+import codegen.peephole.PeepholeOptimizer;
+import liveness.LivenessAnalysis;
+import liveness.LivenessWriter;
+import optimizer.PassManager;
 import org.apache.commons.cli.*;
+import parser.FunctionParser;
 import parser.Parser;
+import regalloc.FunctionData;
+import regalloc.factory.AllocatorFactory;
 import regalloc.factory.GlobalAllocatorFactory;
 import regalloc.factory.IntraBlockAllocatorFactory;
 import regalloc.factory.NaiveAllocatorFactory;
+import stats.CompileStatistics;
+import stats.StatisticsWriter;
 import util.FileGenerator;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.Arrays;
 import java.util.List;
 
@@ -26,6 +38,13 @@ public class Main {
         options.addOption("l", "liveness", false, "liveness");
         options.addOption("c", "cfg", false, "cfg");
         options.addOption("m", "mips", false, "mips-files");
+        options.addOption("j", "jobs", true, "threads");
+        options.addOption(Option.builder("s").longOpt("stats").hasArg().optionalArg(true).argName("text|json")
+                .desc("compile-statistics").build());
+        options.addOption(Option.builder("p").longOpt("peephole").hasArg().optionalArg(true)
+                .argName("store-load,load-load,constant,move,jump").desc("peephole-rules").build());
+        options.addOption("w", "window", true, "peephole-window");
+        options.addOption("O", "optimize", true, "optimization-level");
 
         CommandLineParser commandLineParser = new DefaultParser();
         CommandLine cmd = null;
@@ -54,47 +73,88 @@ public class Main {
 
         String briggsFile = tigerFilePath.replace(extension, ".briggs.s");
 
-        Parser parser = new Parser(irFilePath);
+        String statsFile = tigerFilePath.replace(extension, ".stats");
+
+        CompileStatistics statistics = cmd.hasOption("stats") ? new CompileStatistics() : null;
 
+        long readStart = System.nanoTime();
+        Parser parser = new Parser(irFilePath);
+        if (statistics != null) statistics.setProgramReadNanos(System.nanoTime() - readStart);
 
-        // default
-        CodeGenerator codeGenerator = new CodeGenerator(parser, new NaiveAllocatorFactory());
+        int threads = cmd.hasOption("j") ? Integer.parseInt(cmd.getOptionValue("j")) : 1;
 
-        // naive allocation
-        if (cmd.hasOption("n")) {
-            codeGenerator = new CodeGenerator(parser, new NaiveAllocatorFactory());
+        PeepholeOptimizer peepholeOptimizer = null;
+        if (cmd.hasOption("peephole")) {
+            int window = cmd.hasOption("w") ? Integer.parseInt(cmd.getOptionValue("w")) : PeepholeOptimizer.DEFAULT_WINDOW;
+            String rules = cmd.getOptionValue("peephole");
+            peepholeOptimizer = rules == null ? new PeepholeOptimizer(window)
+                    : new PeepholeOptimizer(PeepholeOptimizer.getRules(Arrays.asList(rules.split(","))), window);
         }
 
+        PassManager passManager = PassManager.forLevel(cmd.hasOption("O") ? Integer.parseInt(cmd.getOptionValue("O")) : 0, parser);
+
+        // naive allocation by default
+        AllocatorFactory allocatorFactory = new NaiveAllocatorFactory();
+
         // intra block allocation
-        if (cmd.hasOption("b")) {
-            codeGenerator = new CodeGenerator(parser, new IntraBlockAllocatorFactory());
-        }
+        if (cmd.hasOption("b")) allocatorFactory = new IntraBlockAllocatorFactory();
 
         // global allocation
-        if (cmd.hasOption("g")) {
-            codeGenerator = new CodeGenerator(parser, new GlobalAllocatorFactory());
-        }
+        if (cmd.hasOption("g")) allocatorFactory = new GlobalAllocatorFactory();
 
+        CodeGenerator codeGenerator = new CodeGenerator(parser, allocatorFactory, threads, statistics, peepholeOptimizer, passManager);
+
+        // the same program with every allocator, next to each other for comparison
         if (cmd.hasOption("mips")) {
-            /*
-            CodeGenerator naiveAllocationGenerator = new CodeGenerator(parser, new NaiveAllocatorFactory());
-            CodeGenerator intraBlockAllocationGenerator = new CodeGenerator(parser, new IntraBlockAllocatorFactory());
-            CodeGenerator globalAllocationGenerator = new CodeGenerator(parser, new GlobalAllocatorFactory());
-            FileGenerator.generateMipsFile(naiveFile, naiveAllocationGenerator.generateMips());
-            FileGenerator.generateMipsFile(intraBlockFile, intraBlockAllocationGenerator.generateMips());
-            FileGenerator.generateMipsFile(briggsFile, globalAllocationGenerator.generateMips());
-            */
+            generateMipsFile(naiveFile, new CodeGenerator(parser, new NaiveAllocatorFactory(), threads, null, peepholeOptimizer, passManager), parser);
+            generateMipsFile(intraBlockFile, new CodeGenerator(parser, new IntraBlockAllocatorFactory(), threads, null, peepholeOptimizer, passManager), parser);
+            generateMipsFile(briggsFile, new CodeGenerator(parser, new GlobalAllocatorFactory(), threads, null, peepholeOptimizer, passManager), parser);
         }
 
         if (cmd.hasOption("cfg")) {
-
+            GraphvizWriter graphvizWriter = new GraphvizWriter();
+            List<String> functionLines;
+            while ((functionLines = parser.getNextFunction()) != null) {
+                FunctionData data = new FunctionParser(functionLines).getFunctionData();
+                String functionName = data.getInstructions().get(0).getOperation().replace(":", "");
+                graphvizWriter.addFunction(functionName, new ControlFlowGraph(data.getInstructions()));
+            }
+            parser.reset();
+            FileGenerator.generateFile(cfgFile, graphvizWriter.getLines());
         }
 
         if (cmd.hasOption("liveness")) {
+            LivenessWriter livenessWriter = new LivenessWriter();
+            List<String> functionLines;
+            while ((functionLines = parser.getNextFunction()) != null) {
+                FunctionData data = new FunctionParser(functionLines).getFunctionData();
+                String functionName = data.getInstructions().get(0).getOperation().replace(":", "");
+                livenessWriter.addFunction(functionName, new LivenessAnalysis(new ControlFlowGraph(data.getInstructions()), data.getScalarVariables()));
+            }
+            parser.reset();
+            FileGenerator.generateFile(livenessFile, livenessWriter.getLines());
+        }
 
+        try (Writer writer = FileGenerator.createWriter(mipsFile)) {
+            codeGenerator.generateMips(writer);
         }
 
-        List<String> instructions = codeGenerator.generateMips();
-        FileGenerator.generateMipsFile(mipsFile, instructions);
+        if (statistics != null) {
+            if ("json".equals(cmd.getOptionValue("stats"))) {
+                FileGenerator.generateFile(statsFile + ".json", StatisticsWriter.getJsonLines(statistics));
+            } else {
+                FileGenerator.generateFile(statsFile, StatisticsWriter.getTextLines(statistics));
+            }
+        }
+    }
+
+    /**
+     * writes the code of the generator to path and rewinds the parser for the next reader of the program
+     */
+    private static void generateMipsFile(String path, CodeGenerator codeGenerator, Parser parser) throws IOException {
+        try (Writer writer = FileGenerator.createWriter(path)) {
+            codeGenerator.generateMips(writer);
+        }
+        parser.reset();
     }
 }
@@ -0,0 +1,163 @@
+package optimizer;
+
+import ir_instructions.IRInstruction;
+import ir_instructions.InstructionType;
+import parser.FunctionParser;
+import parser.Parser;
+import regalloc.FunctionData;
+
+import java.util.*;
+
+/**
+ * functions of the program and the functions each of them calls, library functions are not part of it
+ * a function is recursive if it can reach itself through its calls, found with Tarjan's strongly connected components
+ * the parsed bodies of small functions are kept for the inliner, larger ones are dropped after reading their calls
+ */
+public class CallGraph {
+    private final Map<String, Integer> ids;
+    private final List<String> names;
+    private final List<Set<String>> callees;
+    private final Map<String, FunctionData> bodies;
+    private final boolean[] recursive;
+    private final Set<String> staticArrays;
+
+    /**
+     * reads every function of the parser once and resets it, bodies of at most maxBodySize instructions are kept
+     */
+    public CallGraph(Parser parser, int maxBodySize) {
+        ids = new HashMap<>();
+        names = new ArrayList<>();
+        callees = new ArrayList<>();
+        bodies = new HashMap<>();
+        staticArrays = new HashSet<>(parser.getStaticArrays().keySet());
+
+        List<String> functionLines;
+        while ((functionLines = parser.getNextFunction()) != null) {
+            FunctionData function = new FunctionParser(functionLines).getFunctionData();
+            List<IRInstruction> instructions = function.getInstructions();
+            String name = getName(function);
+            Set<String> called = new LinkedHashSet<>();
+            for (IRInstruction instruction : instructions) {
+                String callee = getCallee(instruction);
+                if (callee != null) called.add(callee);
+            }
+            ids.put(name, names.size());
+            names.add(name);
+            callees.add(called);
+            if (instructions.size() - 1 <= maxBodySize) bodies.put(name, function);
+        }
+        parser.reset();
+        recursive = findRecursiveFunctions();
+    }
+
+    /**
+     * returns name of the function from its label
+     */
+    public static String getName(FunctionData function) {
+        String label = function.getInstructions().get(0).getOperation();
+        return label.substring(0, label.length() - 1);
+    }
+
+    /**
+     * returns name of the function called by the instruction, null if it is not a call
+     */
+    public static String getCallee(IRInstruction instruction) {
+        if (instruction.getInstructionType() == InstructionType.CALL) return instruction.getArguments().get(0);
+        if (instruction.getInstructionType() == InstructionType.CALLR) return instruction.getArguments().get(1);
+        return null;
+    }
+
+    public boolean contains(String function) {
+        return ids.containsKey(function);
+    }
+
+    /**
+     * returns functions of the program called by the function, library functions included
+     */
+    public Set<String> getCallees(String function) {
+        Integer id = ids.get(function);
+        return id == null ? Set.of() : callees.get(id);
+    }
+
+    public boolean isRecursive(String function) {
+        Integer id = ids.get(function);
+        return id != null && recursive[id];
+    }
+
+    /**
+     * returns the parsed function as it is in the file, null for large functions and functions not in the program
+     * the body is shared, callers copy its instructions and never change it
+     */
+    public FunctionData getBody(String function) {
+        return bodies.get(function);
+    }
+
+    public boolean isStaticArray(String name) {
+        return staticArrays.contains(name);
+    }
+
+    /**
+     * iterative Tarjan, a component of several functions or a function calling itself is recursive
+     */
+    private boolean[] findRecursiveFunctions() {
+        int count = names.size();
+        boolean[] found = new boolean[count];
+        int[] index = new int[count];
+        int[] lowLink = new int[count];
+        boolean[] onStack = new boolean[count];
+        Arrays.fill(index, -1);
+        int[] stack = new int[count];
+        int stackSize = 0;
+        int nextIndex = 0;
+
+        // explicit call stack of functions being visited and their callees still to visit
+        int[] visiting = new int[count];
+        List<Iterator<String>> remaining = new ArrayList<>(Collections.nCopies(count, null));
+        for (int root = 0; root < count; root++) {
+            if (index[root] >= 0) continue;
+            int depth = 0;
+            visiting[depth++] = root;
+            index[root] = lowLink[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            remaining.set(root, callees.get(root).iterator());
+            while (depth > 0) {
+                int function = visiting[depth - 1];
+                Iterator<String> calls = remaining.get(function);
+                if (calls.hasNext()) {
+                    Integer callee = ids.get(calls.next());
+                    if (callee == null) continue;
+                    if (callee == function) found[function] = true;
+                    if (index[callee] < 0) {
+                        index[callee] = lowLink[callee] = nextIndex++;
+                        stack[stackSize++] = callee;
+                        onStack[callee] = true;
+                        remaining.set(callee, callees.get(callee).iterator());
+                        visiting[depth++] = callee;
+                    } else if (onStack[callee]) {
+                        lowLink[function] = Math.min(lowLink[function], index[callee]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int caller = visiting[depth - 1];
+                    lowLink[caller] = Math.min(lowLink[caller], lowLink[function]);
+                }
+                if (lowLink[function] != index[function]) continue;
+                int size = 0;
+                int member;
+                int first = stackSize;
+                do {
+                    member = stack[--stackSize];
+                    onStack[member] = false;
+                    size++;
+                } while (member != function);
+                if (size > 1) {
+                    for (int i = stackSize; i < first; i++) found[stack[i]] = true;
+                }
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,124 @@
+package optimizer;
+
+import ir_instructions.IRInstruction;
+import ir_instructions.IROpcode;
+import ir_instructions.InstructionType;
+import ir_instructions.SymbolTable;
+import regalloc.FunctionData;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * replaces arithmetic on two constants with an assignment of the result
+ * and branches on two constants with a goto or nothing
+ * results are computed as the generated code would: in the type of the destination, 32 bit ints, single precision floats
+ */
+public class ConstantFolding implements Pass {
+    @Override
+    public boolean run(FunctionData function, Set<String> staticVariables, Set<String> floatVariables) {
+        List<IRInstruction> instructions = function.getInstructions();
+        SymbolTable symbols = function.getSymbolTable();
+        boolean changed = false;
+        int kept = 0;
+        for (int i = 0; i < instructions.size(); i++) {
+            IRInstruction instruction = instructions.get(i);
+            IRInstruction folded = instruction;
+            if (instruction.getInstructionType() == InstructionType.ARITHMETIC) {
+                folded = foldArithmetic(instruction, floatVariables, symbols);
+            } else if (instruction.getInstructionType() == InstructionType.BRANCH) {
+                folded = foldBranch(instruction, symbols);
+            }
+            if (folded != instruction) changed = true;
+            if (folded != null) instructions.set(kept++, folded);
+        }
+        instructions.subList(kept, instructions.size()).clear();
+        return changed;
+    }
+
+    /**
+     * returns assignment of the result, the instruction itself if it cannot be folded
+     */
+    private static IRInstruction foldArithmetic(IRInstruction instruction, Set<String> floatVariables, SymbolTable symbols) {
+        List<String> arguments = instruction.getArguments();
+        String first = arguments.get(0);
+        String second = arguments.get(1);
+        String destination = arguments.get(2);
+        if (!Constants.isConstant(first) || !Constants.isConstant(second)) return instruction;
+
+        String result = floatVariables.contains(destination)
+                ? foldFloat(instruction.getOpcode(), Constants.parseFloat(first), Constants.parseFloat(second))
+                : foldInt(instruction.getOpcode(), first, second);
+        return result == null ? instruction : Instructions.assign(destination, result, symbols);
+    }
+
+    private static String foldFloat(IROpcode opcode, float first, float second) {
+        float result;
+        switch (opcode) {
+            case ADD -> result = first + second;
+            case SUB -> result = first - second;
+            case MULT -> result = first * second;
+            case DIV -> result = first / second;
+            // there are no float and / or instructions
+            default -> {
+                return null;
+            }
+        }
+        return Float.isFinite(result) ? Constants.formatFloat(result) : null;
+    }
+
+    private static String foldInt(IROpcode opcode, String firstConstant, String secondConstant) {
+        // a float operand of an int destination is left to the generated code
+        if (Constants.isFloat(firstConstant) || Constants.isFloat(secondConstant)) return null;
+        Integer first = Constants.parseInt(firstConstant);
+        Integer second = Constants.parseInt(secondConstant);
+        if (first == null || second == null) return null;
+        return switch (opcode) {
+            // add and sub trap on overflow, mul wraps around like java
+            case ADD -> overflows((long) first + second) ? null : String.valueOf(first + second);
+            case SUB -> overflows((long) first - second) ? null : String.valueOf(first - second);
+            case MULT -> String.valueOf(first * second);
+            // division by zero and overflow are left to trap or not at run time
+            case DIV -> second == 0 || (first == Integer.MIN_VALUE && second == -1) ? null : String.valueOf(first / second);
+            case AND -> String.valueOf(first & second);
+            case OR -> String.valueOf(first | second);
+            default -> null;
+        };
+    }
+
+    private static boolean overflows(long result) {
+        return result != (int) result;
+    }
+
+    /**
+     * returns goto to the target if the branch is always taken, null if never, the instruction itself if it is not constant
+     */
+    private static IRInstruction foldBranch(IRInstruction instruction, SymbolTable symbols) {
+        List<String> arguments = instruction.getArguments();
+        String first = arguments.get(0);
+        String second = arguments.get(1);
+        if (!Constants.isConstant(first) || !Constants.isConstant(second)) return instruction;
+
+        int comparison;
+        if (Constants.isFloat(first) || Constants.isFloat(second)) {
+            float firstValue = Constants.parseFloat(first);
+            float secondValue = Constants.parseFloat(second);
+            comparison = firstValue < secondValue ? -1 : firstValue > secondValue ? 1 : 0;
+        } else {
+            Integer firstValue = Constants.parseInt(first);
+            Integer secondValue = Constants.parseInt(second);
+            if (firstValue == null || secondValue == null) return instruction;
+            comparison = Integer.compare(firstValue, secondValue);
+        }
+        boolean taken = switch (instruction.getOpcode()) {
+            case BREQ -> comparison == 0;
+            case BRNEQ -> comparison != 0;
+            case BRLT -> comparison < 0;
+            case BRGT -> comparison > 0;
+            case BRLEQ -> comparison <= 0;
+            case BRGEQ -> comparison >= 0;
+            default -> throw new IllegalStateException("not a branch " + instruction.getOperation());
+        };
+        return taken ? Instructions.jump(arguments.get(2), symbols) : null;
+    }
+}
@@ -0,0 +1,127 @@
+package optimizer;
+
+import cfg.ControlFlowGraph;
+import ir_instructions.IRInstruction;
+import ir_instructions.InstructionType;
+import ir_instructions.SymbolTable;
+import regalloc.FunctionData;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * replaces uses of local variables with the constant they hold on every path reaching the use
+ * forward dataflow over the basic blocks, a variable keeps its constant at a join only if all reached predecessors agree
+ * statics may be written by any call and arrays are not tracked, parameters are unknown on entry
+ */
+public class ConstantPropagation implements Pass {
+    @Override
+    public boolean run(FunctionData function, Set<String> staticVariables, Set<String> floatVariables) {
+        List<IRInstruction> instructions = function.getInstructions();
+        ControlFlowGraph cfg = new ControlFlowGraph(instructions);
+        Set<String> tracked = new HashSet<>(function.getScalarVariables());
+        tracked.removeAll(staticVariables);
+
+        // constants on block exits, null for blocks not reached yet
+        List<Map<String, String>> exits = new ArrayList<>();
+        for (int block = 0; block < cfg.getBlockCount(); block++) exits.add(null);
+        Deque<Integer> worklist = new ArrayDeque<>();
+        boolean[] queued = new boolean[cfg.getBlockCount()];
+        if (cfg.getBlockCount() > 0) {
+            worklist.add(0);
+            queued[0] = true;
+        }
+        while (!worklist.isEmpty()) {
+            int block = worklist.poll();
+            queued[block] = false;
+            Map<String, String> constants = getEntryConstants(cfg, block, exits);
+            for (int i = cfg.getBlockStart(block); i < cfg.getBlockEnd(block); i++) {
+                transfer(instructions.get(i), substitute(instructions.get(i), constants), constants, tracked, floatVariables);
+            }
+            if (constants.equals(exits.get(block))) continue;
+            exits.set(block, constants);
+            for (int s = 0; s < cfg.getSuccessorCount(block); s++) {
+                int successor = cfg.getSuccessor(block, s);
+                if (!queued[successor]) {
+                    queued[successor] = true;
+                    worklist.add(successor);
+                }
+            }
+        }
+
+        SymbolTable symbols = function.getSymbolTable();
+        boolean changed = false;
+        for (int block = 0; block < cfg.getBlockCount(); block++) {
+            if (exits.get(block) == null) continue;
+            Map<String, String> constants = getEntryConstants(cfg, block, exits);
+            for (int i = cfg.getBlockStart(block); i < cfg.getBlockEnd(block); i++) {
+                IRInstruction instruction = instructions.get(i);
+                List<String> arguments = substitute(instruction, constants);
+                if (arguments != instruction.getArguments()) {
+                    instructions.set(i, Instructions.withArguments(instruction, arguments, symbols));
+                    changed = true;
+                }
+                transfer(instruction, arguments, constants, tracked, floatVariables);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * returns constants all reached predecessors agree on, nothing is known on entry of the function
+     */
+    private static Map<String, String> getEntryConstants(ControlFlowGraph cfg, int block, List<Map<String, String>> exits) {
+        if (block == 0) return new HashMap<>();
+        Map<String, String> constants = null;
+        for (int p = 0; p < cfg.getPredecessorCount(block); p++) {
+            Map<String, String> predecessor = exits.get(cfg.getPredecessor(block, p));
+            if (predecessor == null) continue;
+            if (constants == null) {
+                constants = new HashMap<>(predecessor);
+            } else {
+                constants.entrySet().removeIf(entry -> !entry.getValue().equals(predecessor.get(entry.getKey())));
+            }
+        }
+        return constants == null ? new HashMap<>() : constants;
+    }
+
+    /**
+     * returns arguments with known variables replaced by their constants, the same list if nothing is replaced
+     */
+    private static List<String> substitute(IRInstruction instruction, Map<String, String> constants) {
+        List<String> arguments = instruction.getArguments();
+        List<String> substituted = null;
+        for (int i = Instructions.getFirstUsedArgument(instruction); i < Instructions.getLastUsedArgument(instruction); i++) {
+            String constant = constants.get(arguments.get(i));
+            if (constant == null) continue;
+            if (substituted == null) substituted = new ArrayList<>(arguments);
+            substituted.set(i, constant);
+        }
+        return substituted == null ? arguments : substituted;
+    }
+
+    /**
+     * updates constants after the instruction, arguments are the ones after substitution
+     */
+    private static void transfer(IRInstruction instruction, List<String> arguments, Map<String, String> constants,
+                                 Set<String> tracked, Set<String> floatVariables) {
+        String defined = instruction.getDefinedOperand();
+        if (defined == null || !tracked.contains(defined)) return;
+        String constant = null;
+        if (arguments.size() == 2 && instruction.getInstructionType() == InstructionType.ASSIGN
+                && Constants.isConstant(arguments.get(1))) {
+            constant = Constants.convert(arguments.get(1), floatVariables.contains(defined));
+        }
+        if (constant == null) {
+            constants.remove(defined);
+        } else {
+            constants.put(defined, constant);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package optimizer;
+
+import codegen.CodeGenerator;
+import ir_instructions.SymbolTable;
+
+import java.math.BigDecimal;
+
+/**
+ * evaluation of IR constants the way the generated code evaluates them:
+ * 32 bit integers and single precision floats
+ */
+final class Constants {
+    private Constants() {
+    }
+
+    static boolean isConstant(String operand) {
+        return SymbolTable.isConstant(operand);
+    }
+
+    static boolean isFloat(String constant) {
+        return CodeGenerator.isFloatConstant(constant);
+    }
+
+    /**
+     * returns value of an integer constant, null if it does not fit in 32 bits
+     */
+    static Integer parseInt(String constant) {
+        try {
+            return Integer.parseInt(constant);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static float parseFloat(String constant) {
+        return Float.parseFloat(constant);
+    }
+
+    /**
+     * returns float constant text without exponent, the assembler does not read every form Java prints
+     */
+    static String formatFloat(float value) {
+        String text = new BigDecimal(Float.toString(value)).toPlainString();
+        return text.contains(".") ? text : text + ".0";
+    }
+
+    /**
+     * returns constant as it is read into a variable of the given type, null if an int variable cannot hold it
+     */
+    static String convert(String constant, boolean toFloat) {
+        if (toFloat) return isFloat(constant) ? constant : formatFloat(parseFloat(constant));
+        return !isFloat(constant) && parseInt(constant) != null ? constant : null;
+    }
+}
@@ -0,0 +1,159 @@
+package optimizer;
+
+import cfg.ControlFlowGraph;
+import ir_instructions.IRInstruction;
+import ir_instructions.InstructionType;
+import ir_instructions.SymbolTable;
+import liveness.BitSets;
+import regalloc.FunctionData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * replaces uses of x with y wherever the copy "assign x, y" reaches on every path and neither side was written since
+ * forward dataflow over the copies of the function as bitsets, joins keep the copies all predecessors agree on,
+ * copies left without uses are removed by dead code elimination
+ * only local scalars of the same type take part, statics may be written by any call
+ */
+public class CopyPropagation implements Pass {
+    @Override
+    public boolean run(FunctionData function, Set<String> staticVariables, Set<String> floatVariables) {
+        List<IRInstruction> instructions = function.getInstructions();
+        Set<String> tracked = new HashSet<>(function.getScalarVariables());
+        tracked.removeAll(staticVariables);
+
+        // copies get dense ids, every variable knows the copies reading or writing it
+        // the copies are kept as they were, rewriting a chain below must not change what an earlier copy means
+        List<Integer> copies = new ArrayList<>();
+        List<IRInstruction> copyInstructions = new ArrayList<>();
+        Map<String, List<Integer>> copiesOfVariable = new HashMap<>();
+        for (int i = 0; i < instructions.size(); i++) {
+            if (!isCopy(instructions.get(i), tracked, floatVariables)) continue;
+            List<String> arguments = instructions.get(i).getArguments();
+            copiesOfVariable.computeIfAbsent(arguments.get(0), variable -> new ArrayList<>()).add(copies.size());
+            copiesOfVariable.computeIfAbsent(arguments.get(1), variable -> new ArrayList<>()).add(copies.size());
+            copies.add(i);
+            copyInstructions.add(instructions.get(i));
+        }
+        if (copies.isEmpty()) return false;
+
+        ControlFlowGraph cfg = new ControlFlowGraph(instructions);
+        int blockCount = cfg.getBlockCount();
+        long[][] exits = new long[blockCount][];
+        boolean[] queued = new boolean[blockCount];
+        int[] worklist = new int[blockCount];
+        int head = 0;
+        int size = 0;
+        if (blockCount > 0) {
+            worklist[size++] = 0;
+            queued[0] = true;
+        }
+        while (size > 0) {
+            int block = worklist[head];
+            head = (head + 1) % blockCount;
+            size--;
+            queued[block] = false;
+            long[] available = getEntryCopies(cfg, block, exits, copies.size());
+            for (int i = cfg.getBlockStart(block); i < cfg.getBlockEnd(block); i++) {
+                transfer(instructions.get(i), i, available, copies, copiesOfVariable);
+            }
+            if (Arrays.equals(available, exits[block])) continue;
+            exits[block] = available;
+            for (int s = 0; s < cfg.getSuccessorCount(block); s++) {
+                int successor = cfg.getSuccessor(block, s);
+                if (queued[successor]) continue;
+                queued[successor] = true;
+                worklist[(head + size) % blockCount] = successor;
+                size++;
+            }
+        }
+
+        SymbolTable symbols = function.getSymbolTable();
+        boolean changed = false;
+        for (int block = 0; block < blockCount; block++) {
+            if (exits[block] == null) continue;
+            long[] available = getEntryCopies(cfg, block, exits, copies.size());
+            for (int i = cfg.getBlockStart(block); i < cfg.getBlockEnd(block); i++) {
+                IRInstruction instruction = instructions.get(i);
+                List<String> arguments = instruction.getArguments();
+                List<String> rewritten = null;
+                for (int a = Instructions.getFirstUsedArgument(instruction); a < Instructions.getLastUsedArgument(instruction); a++) {
+                    String source = findSource(arguments.get(a), available, copyInstructions, copiesOfVariable);
+                    if (source == null) continue;
+                    if (rewritten == null) rewritten = new ArrayList<>(arguments);
+                    rewritten.set(a, source);
+                }
+                transfer(instruction, i, available, copies, copiesOfVariable);
+                if (rewritten == null) continue;
+                instructions.set(i, Instructions.withArguments(instruction, rewritten, symbols));
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private static boolean isCopy(IRInstruction instruction, Set<String> tracked, Set<String> floatVariables) {
+        if (instruction.getInstructionType() != InstructionType.ASSIGN || instruction.getArguments().size() != 2) return false;
+        String destination = instruction.getArguments().get(0);
+        String source = instruction.getArguments().get(1);
+        return !destination.equals(source) && tracked.contains(destination) && tracked.contains(source)
+                && floatVariables.contains(destination) == floatVariables.contains(source);
+    }
+
+    /**
+     * returns copies available on every predecessor reached so far, none on entry of the function
+     */
+    private static long[] getEntryCopies(ControlFlowGraph cfg, int block, long[][] exits, int copyCount) {
+        long[] available = null;
+        if (block != 0) {
+            for (int p = 0; p < cfg.getPredecessorCount(block); p++) {
+                long[] predecessor = exits[cfg.getPredecessor(block, p)];
+                if (predecessor == null) continue;
+                if (available == null) {
+                    available = predecessor.clone();
+                } else {
+                    for (int w = 0; w < available.length; w++) available[w] &= predecessor[w];
+                }
+            }
+        }
+        return available == null ? BitSets.create(copyCount) : available;
+    }
+
+    /**
+     * a write kills every copy reading or writing the variable, a copy then makes itself available
+     */
+    private static void transfer(IRInstruction instruction, int index, long[] available, List<Integer> copies,
+                                 Map<String, List<Integer>> copiesOfVariable) {
+        String defined = instruction.getDefinedOperand();
+        if (defined == null) return;
+        List<Integer> killed = copiesOfVariable.get(defined);
+        if (killed == null) return;
+        for (int copy : killed) {
+            BitSets.clear(available, copy);
+        }
+        for (int copy : killed) {
+            if (copies.get(copy) == index) BitSets.set(available, copy);
+        }
+    }
+
+    /**
+     * returns source of the available copy into the variable, null if there is none
+     */
+    private static String findSource(String variable, long[] available, List<IRInstruction> copyInstructions,
+                                     Map<String, List<Integer>> copiesOfVariable) {
+        List<Integer> candidates = copiesOfVariable.get(variable);
+        if (candidates == null) return null;
+        for (int copy : candidates) {
+            if (!BitSets.isSet(available, copy)) continue;
+            List<String> arguments = copyInstructions.get(copy).getArguments();
+            if (arguments.get(0).equals(variable)) return arguments.get(1);
+        }
+        return null;
+    }
+}
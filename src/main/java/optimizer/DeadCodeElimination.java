@@ -0,0 +1,90 @@
+package optimizer;
+
+import cfg.ControlFlowGraph;
+import ir_instructions.IRInstruction;
+import ir_instructions.IROpcode;
+import ir_instructions.InstructionType;
+import ir_instructions.SymbolTable;
+import liveness.BitSets;
+import liveness.LivenessAnalysis;
+import regalloc.FunctionData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * removes assignments, arithmetic and array loads whose result is not alive afterwards,
+ * a call whose result is dead becomes a plain call, assignments of a variable to itself go as well
+ * every block is walked backwards from its live out set, a removed instruction does not keep its operands alive,
+ * so chains of dead temporaries inside a block go at once
+ */
+public class DeadCodeElimination implements Pass {
+    @Override
+    public boolean run(FunctionData function, Set<String> staticVariables, Set<String> floatVariables) {
+        List<IRInstruction> instructions = function.getInstructions();
+        // statics are read by callees and arrays are written in place, only local scalars can be dead
+        List<String> variables = new ArrayList<>(function.getScalarVariables());
+        variables.removeAll(staticVariables);
+        LivenessAnalysis liveness = new LivenessAnalysis(new ControlFlowGraph(instructions), variables);
+        ControlFlowGraph cfg = liveness.getControlFlowGraph();
+        SymbolTable symbols = function.getSymbolTable();
+
+        boolean[] removed = new boolean[instructions.size()];
+        boolean changed = false;
+        for (int block = 0; block < cfg.getBlockCount(); block++) {
+            long[] live = liveness.getLiveOut(block).clone();
+            for (int i = cfg.getBlockEnd(block) - 1; i >= cfg.getBlockStart(block); i--) {
+                IRInstruction instruction = instructions.get(i);
+                Integer defined = liveness.getDefinedId(instruction);
+                if ((defined != null && !BitSets.isSet(live, defined)) || isSelfAssignment(instruction)) {
+                    // a call without arguments stays as it is, call expects one after the name for library functions
+                    if (instruction.getInstructionType() == InstructionType.CALLR && instruction.getArguments().size() > 2) {
+                        instruction = toCall(instruction, symbols);
+                        instructions.set(i, instruction);
+                        changed = true;
+                    } else if (isRemovable(instruction)) {
+                        removed[i] = true;
+                        changed = true;
+                        continue;
+                    }
+                }
+                if (defined != null) BitSets.clear(live, defined);
+                for (String used : instruction.getUsedOperands()) {
+                    Integer id = liveness.getVariableId(used);
+                    if (id != null) BitSets.set(live, id);
+                }
+            }
+        }
+        if (!changed) return false;
+
+        int kept = 0;
+        for (int i = 0; i < instructions.size(); i++) {
+            if (!removed[i]) instructions.set(kept++, instructions.get(i));
+        }
+        instructions.subList(kept, instructions.size()).clear();
+        return true;
+    }
+
+    private static boolean isRemovable(IRInstruction instruction) {
+        return switch (instruction.getInstructionType()) {
+            case ASSIGN -> instruction.getArguments().size() == 2;
+            case ARITHMETIC, ARRAY_LOAD -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isSelfAssignment(IRInstruction instruction) {
+        List<String> arguments = instruction.getArguments();
+        return instruction.getInstructionType() == InstructionType.ASSIGN && arguments.size() == 2
+                && arguments.get(0).equals(arguments.get(1));
+    }
+
+    /**
+     * returns call of the same function with the same arguments, without storing the result
+     */
+    private static IRInstruction toCall(IRInstruction instruction, SymbolTable symbols) {
+        List<String> arguments = instruction.getArguments();
+        return new IRInstruction(IROpcode.CALL.getMnemonic(), arguments.subList(1, arguments.size()), IROpcode.CALL, symbols);
+    }
+}
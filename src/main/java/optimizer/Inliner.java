@@ -0,0 +1,237 @@
+package optimizer;
+
+import ir_instructions.IRInstruction;
+import ir_instructions.IROpcode;
+import ir_instructions.InstructionType;
+import ir_instructions.SymbolTable;
+import regalloc.FunctionData;
+
+import java.util.*;
+
+/**
+ * replaces calls of small non recursive functions of the program with their bodies
+ * parameters and locals of the callee become locals of the caller named _inline<k>_<name>,
+ * labels become _inline_<caller>_<k>_<label> so they stay unique in the whole program,
+ * arguments are assigned to the parameters before the body and every return assigns the result and jumps past it
+ * calls in an inlined body are left for the next run, the pass manager repeats the pass
+ */
+public class Inliner implements Pass {
+    public static final int DEFAULT_BUDGET = 32;
+    // callers stop growing at this many instructions
+    private static final int MAX_CALLER_SIZE = 2000;
+    private static final String PREFIX = "_inline";
+
+    private final CallGraph callGraph;
+    private final int budget;
+
+    /**
+     * functions of at most budget instructions are inlined, the call graph must keep their bodies
+     */
+    public Inliner(CallGraph callGraph, int budget) {
+        this.callGraph = callGraph;
+        this.budget = budget;
+    }
+
+    @Override
+    public boolean run(FunctionData function, Set<String> staticVariables, Set<String> floatVariables) {
+        List<IRInstruction> instructions = function.getInstructions();
+        String caller = CallGraph.getName(function);
+        Set<String> callerArrays = new HashSet<>();
+        for (String local : function.getLocalIntVariables()) if (local.contains("[")) callerArrays.add(getArrayName(local));
+        for (String local : function.getLocalFloatVariables()) if (local.contains("[")) callerArrays.add(getArrayName(local));
+
+        int nextSite = getNextSite(function, caller);
+        int size = instructions.size();
+        List<IRInstruction> inlined = null;
+        for (int i = 0; i < instructions.size(); i++) {
+            IRInstruction instruction = instructions.get(i);
+            String callee = CallGraph.getCallee(instruction);
+            FunctionData body = callee == null ? null : callGraph.getBody(callee);
+            if (body != null && !callee.equals(caller) && !callGraph.isRecursive(callee)
+                    && body.getInstructions().size() - 1 <= budget && size + body.getInstructions().size() <= MAX_CALLER_SIZE
+                    && canInline(instruction, body, callerArrays, floatVariables) && !shadowsStatics(function, body)) {
+                if (inlined == null) inlined = new ArrayList<>(instructions.subList(0, i));
+                inline(function, caller, nextSite++, instruction, body, floatVariables, inlined);
+                size += body.getInstructions().size();
+                continue;
+            }
+            if (inlined != null) inlined.add(instruction);
+        }
+        if (inlined == null) return false;
+        instructions.clear();
+        instructions.addAll(inlined);
+        return true;
+    }
+
+    /**
+     * returns whether arguments and result pass between caller and callee without a conversion the call would not do:
+     * no arrays, no floats for int parameters and every return of the type the caller stores
+     */
+    private boolean canInline(IRInstruction call, FunctionData body, Set<String> callerArrays, Set<String> callerFloats) {
+        int firstArgument = call.getInstructionType() == InstructionType.CALLR ? 2 : 1;
+        List<String> arguments = call.getArguments().subList(firstArgument, call.getArguments().size());
+        List<Boolean> isParameterFloat = body.getFloatParameters();
+        if (arguments.size() != isParameterFloat.size()) return false;
+        for (int i = 0; i < arguments.size(); i++) {
+            String argument = arguments.get(i);
+            if (callerArrays.contains(argument) || callGraph.isStaticArray(argument)) return false;
+            if (isFloat(argument, callerFloats) && !isParameterFloat.get(i)) return false;
+        }
+        if (call.getInstructionType() != InstructionType.CALLR) return true;
+
+        boolean isResultFloat = callerFloats.contains(call.getArguments().get(0));
+        Set<String> calleeFloats = body.getFloatVariables();
+        for (IRInstruction instruction : body.getInstructions()) {
+            if (instruction.getInstructionType() != InstructionType.RETURN) continue;
+            if (instruction.getArguments().isEmpty()) return false;
+            String value = instruction.getArguments().get(0);
+            boolean isValueFloat = Constants.isConstant(value) ? Constants.isFloat(value)
+                    : calleeFloats.contains(value) || callerFloats.contains(value) && !isCalleeVariable(body, value);
+            if (isValueFloat != isResultFloat) return false;
+        }
+        return true;
+    }
+
+    /**
+     * returns whether the caller declares a name the callee uses as a static, the inlined body would read the local
+     */
+    private static boolean shadowsStatics(FunctionData function, FunctionData body) {
+        Set<String> callerNames = new HashSet<>(function.getScalarVariables());
+        for (String local : function.getLocalIntVariables()) callerNames.add(getArrayName(local));
+        for (String local : function.getLocalFloatVariables()) callerNames.add(getArrayName(local));
+        for (IRInstruction instruction : body.getInstructions()) {
+            for (String used : instruction.getUsedOperands()) {
+                if (!Constants.isConstant(used) && callerNames.contains(used) && !isCalleeVariable(body, used)) return true;
+            }
+            String defined = instruction.getDefinedOperand();
+            if (defined != null && callerNames.contains(defined) && !isCalleeVariable(body, defined)) return true;
+            if (instruction.getInstructionType() == InstructionType.ARRAY_STORE || instruction.getInstructionType() == InstructionType.ARRAY_LOAD) {
+                String array = instruction.getArguments().get(instruction.getInstructionType() == InstructionType.ARRAY_STORE ? 0 : 1);
+                if (callerNames.contains(array) && !isCalleeVariable(body, array)) return true;
+            }
+        }
+        return false;
+    }
+
+    private void inline(FunctionData function, String caller, int site, IRInstruction call, FunctionData body,
+                        Set<String> callerFloats, List<IRInstruction> inlined) {
+        SymbolTable symbols = function.getSymbolTable();
+        Map<String, String> renamed = new HashMap<>();
+        String variablePrefix = PREFIX + site + "_";
+        for (String local : body.getLocalIntVariables()) {
+            renamed.put(getArrayName(local), variablePrefix + getArrayName(local));
+            function.getLocalIntVariables().add(variablePrefix + local);
+        }
+        for (String local : body.getLocalFloatVariables()) {
+            renamed.put(getArrayName(local), variablePrefix + getArrayName(local));
+            function.getLocalFloatVariables().add(variablePrefix + local);
+        }
+        List<String> parameters = body.getIntParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            renamed.put(parameters.get(i), variablePrefix + parameters.get(i));
+            if (body.getFloatParameters().get(i)) {
+                function.getLocalFloatVariables().add(variablePrefix + parameters.get(i));
+            } else {
+                function.getLocalIntVariables().add(variablePrefix + parameters.get(i));
+            }
+        }
+        String labelPrefix = PREFIX + "_" + caller + "_" + site + "_";
+        String endLabel = labelPrefix + "end";
+
+        boolean returnsResult = call.getInstructionType() == InstructionType.CALLR;
+        int firstArgument = returnsResult ? 2 : 1;
+        for (int i = 0; i < parameters.size(); i++) {
+            inlined.add(Instructions.assign(renamed.get(parameters.get(i)), call.getArguments().get(firstArgument + i), symbols));
+        }
+        List<IRInstruction> instructions = body.getInstructions();
+        for (int i = 1; i < instructions.size(); i++) {
+            IRInstruction instruction = instructions.get(i);
+            switch (instruction.getInstructionType()) {
+                case LABEL -> inlined.add(new IRInstruction(labelPrefix + instruction.getOperation(), List.of(), IROpcode.LABEL, symbols));
+                case RETURN -> {
+                    if (returnsResult) {
+                        String value = instruction.getArguments().get(0);
+                        inlined.add(Instructions.assign(call.getArguments().get(0), renamed.getOrDefault(value, value), symbols));
+                    }
+                    // the last return falls through to the end label
+                    if (i < instructions.size() - 1) inlined.add(Instructions.jump(endLabel, symbols));
+                }
+                default -> inlined.add(rename(instruction, renamed, labelPrefix, symbols));
+            }
+        }
+        inlined.add(new IRInstruction(endLabel + ":", List.of(), IROpcode.LABEL, symbols));
+    }
+
+    /**
+     * returns instruction with the callee's variables and labels renamed, statics and called functions keep their names
+     */
+    private static IRInstruction rename(IRInstruction instruction, Map<String, String> renamed, String labelPrefix, SymbolTable symbols) {
+        List<String> arguments = new ArrayList<>(instruction.getArguments());
+        int labelArgument = switch (instruction.getInstructionType()) {
+            case GOTO -> 0;
+            case BRANCH -> 2;
+            default -> -1;
+        };
+        int calleeArgument = switch (instruction.getInstructionType()) {
+            case CALL -> 0;
+            case CALLR -> 1;
+            default -> -1;
+        };
+        for (int a = 0; a < arguments.size(); a++) {
+            if (a == labelArgument) {
+                arguments.set(a, labelPrefix + arguments.get(a));
+            } else if (a != calleeArgument) {
+                arguments.set(a, renamed.getOrDefault(arguments.get(a), arguments.get(a)));
+            }
+        }
+        return Instructions.withArguments(instruction, arguments, symbols);
+    }
+
+    /**
+     * returns a site number no earlier inlining into the function used
+     * sites are recovered from the renamed locals and labels, a callee without parameters and locals only leaves labels
+     */
+    private static int getNextSite(FunctionData function, String caller) {
+        int next = 0;
+        List<String> locals = new ArrayList<>(function.getLocalIntVariables());
+        locals.addAll(function.getLocalFloatVariables());
+        for (String local : locals) {
+            next = Math.max(next, getSite(local, PREFIX) + 1);
+        }
+        String labelPrefix = PREFIX + "_" + caller + "_";
+        for (IRInstruction instruction : function.getInstructions()) {
+            if (instruction.getInstructionType() == InstructionType.LABEL) {
+                next = Math.max(next, getSite(instruction.getOperation(), labelPrefix) + 1);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * returns site number k of a name like <prefix><k>_..., -1 if the name is not of that form
+     */
+    private static int getSite(String name, String prefix) {
+        if (!name.startsWith(prefix)) return -1;
+        int end = name.indexOf('_', prefix.length());
+        if (end <= prefix.length()) return -1;
+        try {
+            return Integer.parseInt(name.substring(prefix.length(), end));
+        } catch (NumberFormatException e) {
+            // a name of the program which only looks like an inlined one
+            return -1;
+        }
+    }
+
+    private static boolean isCalleeVariable(FunctionData body, String name) {
+        return body.getIntParameters().contains(name) || body.getLocalIntVariables().stream().anyMatch(local -> getArrayName(local).equals(name))
+                || body.getLocalFloatVariables().stream().anyMatch(local -> getArrayName(local).equals(name));
+    }
+
+    private static boolean isFloat(String operand, Set<String> floatVariables) {
+        return Constants.isConstant(operand) ? Constants.isFloat(operand) : floatVariables.contains(operand);
+    }
+
+    private static String getArrayName(String variableName) {
+        return variableName.contains("[") ? variableName.substring(0, variableName.indexOf('[')) : variableName;
+    }
+}
@@ -0,0 +1,52 @@
+package optimizer;
+
+import ir_instructions.IRInstruction;
+import ir_instructions.IROpcode;
+import ir_instructions.SymbolTable;
+
+import java.util.List;
+
+/**
+ * helpers for building the IR instructions passes put in place of the ones they rewrite
+ */
+final class Instructions {
+    private Instructions() {
+    }
+
+    static IRInstruction assign(String destination, String value, SymbolTable symbols) {
+        return new IRInstruction(IROpcode.ASSIGN.getMnemonic(), List.of(destination, value), IROpcode.ASSIGN, symbols);
+    }
+
+    static IRInstruction jump(String label, SymbolTable symbols) {
+        return new IRInstruction(IROpcode.GOTO.getMnemonic(), List.of(label), IROpcode.GOTO, symbols);
+    }
+
+    static IRInstruction withArguments(IRInstruction instruction, List<String> arguments, SymbolTable symbols) {
+        return new IRInstruction(instruction.getOperation(), arguments, instruction.getOpcode(), symbols);
+    }
+
+    /**
+     * returns index of the first argument read by the instruction, the same arguments as IRInstruction.getUsedOperands
+     */
+    static int getFirstUsedArgument(IRInstruction instruction) {
+        return switch (instruction.getInstructionType()) {
+            case ASSIGN -> instruction.getArguments().size() == 3 ? 2 : 1;
+            case CALL, ARRAY_STORE -> 1;
+            case CALLR, ARRAY_LOAD -> 2;
+            default -> 0;
+        };
+    }
+
+    /**
+     * returns index after the last argument read by the instruction
+     */
+    static int getLastUsedArgument(IRInstruction instruction) {
+        return switch (instruction.getInstructionType()) {
+            case ASSIGN -> instruction.getArguments().size() == 3 ? 3 : 2;
+            case ARITHMETIC, BRANCH -> 2;
+            case ARRAY_STORE, ARRAY_LOAD -> 3;
+            case RETURN, CALL, CALLR -> instruction.getArguments().size();
+            default -> 0;
+        };
+    }
+}
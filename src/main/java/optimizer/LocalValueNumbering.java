@@ -0,0 +1,158 @@
+package optimizer;
+
+import cfg.ControlFlowGraph;
+import ir_instructions.IRInstruction;
+import ir_instructions.IROpcode;
+import ir_instructions.InstructionType;
+import ir_instructions.SymbolTable;
+import regalloc.FunctionData;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * replaces arithmetic and array loads a block already computed with a copy of the variable holding the result
+ * every operand gets a value number, equal numbers mean equal values, copies share the number of their source
+ * an expression is keyed by its opcode, the value numbers of its operands and the type of its result,
+ * its holder is only used while the holder still has the number it got from the expression
+ * array stores and array assignments forget the loads of that array, calls forget all loads and the values of statics
+ */
+public class LocalValueNumbering implements Pass {
+    private record Holder(String variable, int valueNumber) {
+    }
+
+    private static final class Block {
+        private final Set<String> staticVariables;
+        private final Set<String> floatVariables;
+        private final Map<String, Integer> valueNumbers = new HashMap<>();
+        private final Map<String, Holder> expressions = new HashMap<>();
+        private final Map<String, Map<String, Holder>> loads = new HashMap<>();
+        private int nextValueNumber;
+
+        private Block(Set<String> staticVariables, Set<String> floatVariables) {
+            this.staticVariables = staticVariables;
+            this.floatVariables = floatVariables;
+        }
+
+        /**
+         * returns value number of a variable or constant, a new one on first sight
+         */
+        private int valueNumber(String operand) {
+            Integer valueNumber = valueNumbers.get(operand);
+            if (valueNumber != null) return valueNumber;
+            valueNumbers.put(operand, nextValueNumber);
+            return nextValueNumber++;
+        }
+
+        private boolean isFloat(String operand) {
+            return Constants.isConstant(operand) ? Constants.isFloat(operand) : floatVariables.contains(operand);
+        }
+
+        /**
+         * returns variable still holding the value, null if there is none
+         */
+        private String find(Holder holder) {
+            if (holder == null) return null;
+            Integer valueNumber = valueNumbers.get(holder.variable());
+            return valueNumber != null && valueNumber == holder.valueNumber() ? holder.variable() : null;
+        }
+
+        private void define(String variable, int valueNumber) {
+            valueNumbers.put(variable, valueNumber);
+        }
+
+        private int newValueNumber() {
+            return nextValueNumber++;
+        }
+
+        private void forgetCall() {
+            valueNumbers.keySet().removeAll(staticVariables);
+            loads.clear();
+        }
+    }
+
+    @Override
+    public boolean run(FunctionData function, Set<String> staticVariables, Set<String> floatVariables) {
+        List<IRInstruction> instructions = function.getInstructions();
+        ControlFlowGraph cfg = new ControlFlowGraph(instructions);
+        SymbolTable symbols = function.getSymbolTable();
+        boolean changed = false;
+        for (int b = 0; b < cfg.getBlockCount(); b++) {
+            Block block = new Block(staticVariables, floatVariables);
+            for (int i = cfg.getBlockStart(b); i < cfg.getBlockEnd(b); i++) {
+                IRInstruction instruction = instructions.get(i);
+                IRInstruction numbered = number(instruction, block, symbols);
+                if (numbered != instruction) {
+                    instructions.set(i, numbered);
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * updates the tables with the instruction, returns its replacement or the instruction itself
+     */
+    private static IRInstruction number(IRInstruction instruction, Block block, SymbolTable symbols) {
+        List<String> arguments = instruction.getArguments();
+        switch (instruction.getInstructionType()) {
+            case ASSIGN -> {
+                // an array initialization or copy overwrites the elements, the number an array gets is never used
+                String destination = arguments.get(0);
+                block.loads.remove(destination);
+                if (arguments.size() == 2 && block.isFloat(destination) == block.isFloat(arguments.get(1))) {
+                    block.define(destination, block.valueNumber(arguments.get(1)));
+                } else {
+                    block.define(destination, block.newValueNumber());
+                }
+            }
+            case ARITHMETIC -> {
+                String destination = arguments.get(2);
+                int first = block.valueNumber(arguments.get(0));
+                int second = block.valueNumber(arguments.get(1));
+                if (isCommutative(instruction.getOpcode()) && second < first) {
+                    int swap = first;
+                    first = second;
+                    second = swap;
+                }
+                String key = instruction.getOperation() + ' ' + block.isFloat(destination) + ' ' + first + ' ' + second;
+                return reuse(instruction, destination, block.expressions, key, block, symbols);
+            }
+            case ARRAY_LOAD -> {
+                String destination = arguments.get(0);
+                String key = block.isFloat(destination) + " " + block.valueNumber(arguments.get(2));
+                Map<String, Holder> arrayLoads = block.loads.computeIfAbsent(arguments.get(1), array -> new HashMap<>());
+                return reuse(instruction, destination, arrayLoads, key, block, symbols);
+            }
+            case ARRAY_STORE -> block.loads.remove(arguments.get(0));
+            case CALL -> block.forgetCall();
+            case CALLR -> {
+                block.forgetCall();
+                block.define(arguments.get(0), block.newValueNumber());
+            }
+            default -> {
+            }
+        }
+        return instruction;
+    }
+
+    private static IRInstruction reuse(IRInstruction instruction, String destination, Map<String, Holder> expressions, String key,
+                                       Block block, SymbolTable symbols) {
+        String holder = block.find(expressions.get(key));
+        if (holder != null) {
+            block.define(destination, block.valueNumber(holder));
+            return Instructions.assign(destination, holder, symbols);
+        }
+        int valueNumber = block.newValueNumber();
+        block.define(destination, valueNumber);
+        expressions.put(key, new Holder(destination, valueNumber));
+        return instruction;
+    }
+
+    private static boolean isCommutative(IROpcode opcode) {
+        return opcode == IROpcode.ADD || opcode == IROpcode.MULT || opcode == IROpcode.AND || opcode == IROpcode.OR;
+    }
+}
@@ -0,0 +1,237 @@
+package optimizer;
+
+import cfg.ControlFlowGraph;
+import cfg.DominatorTree;
+import cfg.NaturalLoop;
+import ir_instructions.IRInstruction;
+import ir_instructions.IROpcode;
+import ir_instructions.InstructionType;
+import ir_instructions.SymbolTable;
+import liveness.BitSets;
+import liveness.LivenessAnalysis;
+import regalloc.FunctionData;
+
+import java.util.*;
+
+/**
+ * moves assignments, arithmetic and array loads computing the same value on every iteration
+ * into a preheader, placed right before the loop header and entered by every jump into the loop from outside
+ * an instruction moves if its variable is assigned only there in the loop, is not read in the loop before it
+ * and is not read after the loop unless the instruction runs before every exit,
+ * array loads and divisions which may trap only move when they run before every exit
+ * every run moves code out of loops not containing a loop changed in the same run, the pass manager repeats it
+ */
+public class LoopInvariantCodeMotion implements Pass {
+    private static final String PREHEADER_PREFIX = "_preheader_";
+
+    /**
+     * what the loop writes and whether it calls, nothing it reads can be invariant if the loop writes it
+     */
+    private static final class LoopWrites {
+        private final Map<String, Integer> definitions = new HashMap<>();
+        private boolean hasCalls;
+    }
+
+    @Override
+    public boolean run(FunctionData function, Set<String> staticVariables, Set<String> floatVariables) {
+        List<IRInstruction> instructions = function.getInstructions();
+        ControlFlowGraph cfg = new ControlFlowGraph(instructions);
+        DominatorTree dominators = new DominatorTree(cfg);
+        List<NaturalLoop> loops = NaturalLoop.findLoops(dominators);
+        if (loops.isEmpty()) return false;
+
+        List<String> variables = new ArrayList<>(function.getScalarVariables());
+        variables.removeAll(staticVariables);
+        LivenessAnalysis liveness = new LivenessAnalysis(cfg, variables);
+        SymbolTable symbols = function.getSymbolTable();
+        String functionName = ControlFlowGraph.getLabelName(instructions.get(0));
+
+        boolean[] changedBlocks = new boolean[cfg.getBlockCount()];
+        boolean[] removed = new boolean[instructions.size()];
+        Map<Integer, List<IRInstruction>> preheaders = new HashMap<>();
+        Map<Integer, IRInstruction> retargeted = new HashMap<>();
+        for (NaturalLoop loop : loops) {
+            if (containsAny(cfg, loop, changedBlocks) || !hasPreheaderPosition(cfg, loop)) continue;
+            List<Integer> invariants = findInvariants(cfg, dominators, liveness, loop, staticVariables, floatVariables);
+            if (invariants.isEmpty()) continue;
+
+            int header = loop.getHeader();
+            IRInstruction headerLabel = instructions.get(cfg.getBlockStart(header));
+            String preheaderLabel = PREHEADER_PREFIX + functionName + "_" + ControlFlowGraph.getLabelName(headerLabel);
+            List<IRInstruction> preheader = new ArrayList<>();
+            for (int p = 0; p < cfg.getPredecessorCount(header); p++) {
+                int predecessor = cfg.getPredecessor(header, p);
+                if (loop.contains(predecessor)) continue;
+                int terminatorIndex = cfg.getBlockEnd(predecessor) - 1;
+                IRInstruction retarget = retarget(instructions.get(terminatorIndex), ControlFlowGraph.getLabelName(headerLabel), preheaderLabel, symbols);
+                if (retarget == null) continue;
+                retargeted.put(terminatorIndex, retarget);
+                if (preheader.isEmpty()) preheader.add(new IRInstruction(preheaderLabel + ":", List.of(), IROpcode.LABEL, symbols));
+            }
+            for (int index : invariants) {
+                preheader.add(instructions.get(index));
+                removed[index] = true;
+            }
+            preheaders.put(cfg.getBlockStart(header), preheader);
+            for (int block = 0; block < cfg.getBlockCount(); block++) {
+                if (loop.contains(block)) changedBlocks[block] = true;
+            }
+        }
+        if (preheaders.isEmpty()) return false;
+
+        List<IRInstruction> rewritten = new ArrayList<>(instructions.size() + 2 * preheaders.size());
+        for (int i = 0; i < instructions.size(); i++) {
+            List<IRInstruction> preheader = preheaders.get(i);
+            if (preheader != null) rewritten.addAll(preheader);
+            if (!removed[i]) rewritten.add(retargeted.getOrDefault(i, instructions.get(i)));
+        }
+        instructions.clear();
+        instructions.addAll(rewritten);
+        return true;
+    }
+
+    private static boolean containsAny(ControlFlowGraph cfg, NaturalLoop loop, boolean[] blocks) {
+        for (int block = 0; block < cfg.getBlockCount(); block++) {
+            if (blocks[block] && loop.contains(block)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * returns whether code placed before the header label runs exactly when the loop is entered:
+     * the header starts with a label and the loop does not fall through into it from the instruction before
+     */
+    private static boolean hasPreheaderPosition(ControlFlowGraph cfg, NaturalLoop loop) {
+        int header = loop.getHeader();
+        if (cfg.getInstructions().get(cfg.getBlockStart(header)).getInstructionType() != InstructionType.LABEL) return false;
+        if (header == 0 || !loop.contains(header - 1)) return true;
+        InstructionType terminator = cfg.getInstructions().get(cfg.getBlockEnd(header - 1) - 1).getInstructionType();
+        return terminator == InstructionType.GOTO || terminator == InstructionType.RETURN;
+    }
+
+    /**
+     * returns the jump with the header label replaced by the preheader label, null if the instruction falls through
+     */
+    private static IRInstruction retarget(IRInstruction terminator, String headerLabel, String preheaderLabel, SymbolTable symbols) {
+        List<String> arguments = new ArrayList<>(terminator.getArguments());
+        int labelArgument = switch (terminator.getInstructionType()) {
+            case GOTO -> 0;
+            case BRANCH -> 2;
+            default -> -1;
+        };
+        if (labelArgument < 0 || !arguments.get(labelArgument).equals(headerLabel)) return null;
+        arguments.set(labelArgument, preheaderLabel);
+        return Instructions.withArguments(terminator, arguments, symbols);
+    }
+
+    /**
+     * returns indices of the instructions which can move to the preheader, each after the invariants it reads
+     */
+    private static List<Integer> findInvariants(ControlFlowGraph cfg, DominatorTree dominators, LivenessAnalysis liveness,
+                                                NaturalLoop loop, Set<String> staticVariables, Set<String> floatVariables) {
+        List<IRInstruction> instructions = cfg.getInstructions();
+        LoopWrites writes = new LoopWrites();
+        List<Integer> exitingBlocks = new ArrayList<>();
+        for (int block = 0; block < cfg.getBlockCount(); block++) {
+            if (!loop.contains(block)) continue;
+            for (int i = cfg.getBlockStart(block); i < cfg.getBlockEnd(block); i++) {
+                IRInstruction instruction = instructions.get(i);
+                InstructionType type = instruction.getInstructionType();
+                if (type == InstructionType.CALL || type == InstructionType.CALLR) writes.hasCalls = true;
+                String written = type == InstructionType.ARRAY_STORE ? instruction.getArguments().get(0) : instruction.getDefinedOperand();
+                if (written != null) writes.definitions.merge(written, 1, Integer::sum);
+            }
+            for (int s = 0; s < cfg.getSuccessorCount(block); s++) {
+                if (!loop.contains(cfg.getSuccessor(block, s))) {
+                    exitingBlocks.add(block);
+                    break;
+                }
+            }
+        }
+
+        List<Integer> invariants = new ArrayList<>();
+        Set<String> invariantVariables = new HashSet<>();
+        boolean found = true;
+        while (found) {
+            found = false;
+            for (int block = 0; block < cfg.getBlockCount(); block++) {
+                if (!loop.contains(block)) continue;
+                for (int i = cfg.getBlockStart(block); i < cfg.getBlockEnd(block); i++) {
+                    IRInstruction instruction = instructions.get(i);
+                    if (invariantVariables.contains(instruction.getDefinedOperand())) continue;
+                    if (!isInvariant(instruction, writes, invariantVariables, staticVariables)) continue;
+                    if (!canMove(cfg, dominators, liveness, loop, exitingBlocks, block, instruction, writes, floatVariables)) continue;
+                    invariants.add(i);
+                    invariantVariables.add(instruction.getDefinedOperand());
+                    found = true;
+                }
+            }
+        }
+        return invariants;
+    }
+
+    /**
+     * returns whether the instruction computes the same value on every iteration
+     */
+    private static boolean isInvariant(IRInstruction instruction, LoopWrites writes, Set<String> invariantVariables,
+                                       Set<String> staticVariables) {
+        List<String> arguments = instruction.getArguments();
+        switch (instruction.getInstructionType()) {
+            case ASSIGN -> {
+                if (arguments.size() != 2) return false;
+            }
+            case ARITHMETIC -> {
+            }
+            case ARRAY_LOAD -> {
+                if (writes.hasCalls || writes.definitions.containsKey(arguments.get(1))) return false;
+            }
+            default -> {
+                return false;
+            }
+        }
+        for (String used : instruction.getUsedOperands()) {
+            if (Constants.isConstant(used) || invariantVariables.contains(used)) continue;
+            if (writes.definitions.containsKey(used)) return false;
+            if (writes.hasCalls && staticVariables.contains(used)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * returns whether moving the instruction to the preheader keeps every read of its variable seeing the same value
+     * and adds no array access or division by zero the loop would not have run
+     */
+    private static boolean canMove(ControlFlowGraph cfg, DominatorTree dominators, LivenessAnalysis liveness, NaturalLoop loop,
+                                   List<Integer> exitingBlocks, int block, IRInstruction instruction, LoopWrites writes,
+                                   Set<String> floatVariables) {
+        String defined = instruction.getDefinedOperand();
+        Integer id = liveness.getVariableId(defined);
+        // statics are read by callees and stay where they are written
+        if (id == null || writes.definitions.get(defined) != 1) return false;
+        if (BitSets.isSet(liveness.getLiveIn(loop.getHeader()), id)) return false;
+
+        boolean runsBeforeExits = !exitingBlocks.isEmpty();
+        for (int exiting : exitingBlocks) {
+            if (dominators.dominates(block, exiting)) continue;
+            runsBeforeExits = false;
+            for (int s = 0; s < cfg.getSuccessorCount(exiting); s++) {
+                int successor = cfg.getSuccessor(exiting, s);
+                if (!loop.contains(successor) && BitSets.isSet(liveness.getLiveIn(successor), id)) return false;
+            }
+        }
+        return runsBeforeExits || !mayTrap(instruction, floatVariables);
+    }
+
+    /**
+     * returns whether the instruction may fault when run where the loop would not run it:
+     * array loads with an index out of bounds and integer divisions by zero
+     */
+    private static boolean mayTrap(IRInstruction instruction, Set<String> floatVariables) {
+        if (instruction.getInstructionType() == InstructionType.ARRAY_LOAD) return true;
+        if (instruction.getOpcode() != IROpcode.DIV || floatVariables.contains(instruction.getArguments().get(2))) return false;
+        String divisor = instruction.getArguments().get(1);
+        if (!Constants.isConstant(divisor) || Constants.isFloat(divisor)) return true;
+        Integer value = Constants.parseInt(divisor);
+        return value == null || value == 0;
+    }
+}
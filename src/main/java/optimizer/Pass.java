@@ -0,0 +1,16 @@
+package optimizer;
+
+import regalloc.FunctionData;
+
+import java.util.Set;
+
+/**
+ * one transformation of the IR of a function, run before register allocation
+ */
+public interface Pass {
+    /**
+     * rewrites the instructions of the function in place, returns whether anything changed
+     * static variables and arrays are shared with other functions, float variables include statics, locals and parameters
+     */
+    boolean run(FunctionData function, Set<String> staticVariables, Set<String> floatVariables);
+}
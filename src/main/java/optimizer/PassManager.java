@@ -0,0 +1,74 @@
+package optimizer;
+
+import parser.Parser;
+import regalloc.FunctionData;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * runs a list of passes over a function until none of them changes anything
+ * passes enable each other, a propagated constant makes an instruction foldable and a folded one propagatable
+ */
+public class PassManager {
+    public static final int MAX_LEVEL = 2;
+    private static final int MAX_ROUNDS = 8;
+
+    private final List<Pass> passes;
+
+    public PassManager(List<Pass> passes) {
+        this.passes = passes;
+    }
+
+    /**
+     * returns passes of an optimization level: 0 runs nothing,
+     * 1 propagates constants and copies, folds constants, reuses values computed earlier in the block
+     * and removes unreachable blocks and dead code, 2 also moves loop invariant code out of loops
+     */
+    public static PassManager forLevel(int level) {
+        return forLevel(level, null);
+    }
+
+    /**
+     * at level 2 small functions of the parser's program are inlined first, without a parser nothing is inlined
+     */
+    public static PassManager forLevel(int level, Parser parser) {
+        if (level < 0 || level > MAX_LEVEL) throw new IllegalArgumentException("unknown optimization level " + level + ", expected 0 to " + MAX_LEVEL);
+        List<Pass> passes = new ArrayList<>();
+        if (level >= 2 && parser != null) passes.add(new Inliner(new CallGraph(parser, Inliner.DEFAULT_BUDGET), Inliner.DEFAULT_BUDGET));
+        if (level >= 1) {
+            passes.add(new ConstantPropagation());
+            passes.add(new CopyPropagation());
+            passes.add(new ConstantFolding());
+            passes.add(new LocalValueNumbering());
+        }
+        if (level >= 2) passes.add(new LoopInvariantCodeMotion());
+        if (level >= 1) {
+            passes.add(new UnreachableCodeElimination());
+            passes.add(new DeadCodeElimination());
+        }
+        return new PassManager(passes);
+    }
+
+    public boolean isEmpty() {
+        return passes.isEmpty();
+    }
+
+    public void run(FunctionData function, Set<String> staticVariables, Set<String> globalFloatVariables) {
+        if (passes.isEmpty()) return;
+        Set<String> floatVariables = new HashSet<>(globalFloatVariables);
+        floatVariables.addAll(function.getFloatVariables());
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            boolean changed = false;
+            for (Pass pass : passes) {
+                if (!pass.run(function, staticVariables, floatVariables)) continue;
+                // inlining adds the callee's locals to the function
+                floatVariables.addAll(function.getFloatVariables());
+                changed = true;
+            }
+            if (!changed) return;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package optimizer;
+
+import cfg.ControlFlowGraph;
+import ir_instructions.IRInstruction;
+import regalloc.FunctionData;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * removes blocks no path from the entry reaches: code after a goto or return without a label anyone jumps to,
+ * and the code behind branches folded into gotos
+ */
+public class UnreachableCodeElimination implements Pass {
+    @Override
+    public boolean run(FunctionData function, Set<String> staticVariables, Set<String> floatVariables) {
+        List<IRInstruction> instructions = function.getInstructions();
+        ControlFlowGraph cfg = new ControlFlowGraph(instructions);
+        if (cfg.getBlockCount() == 0) return false;
+
+        boolean[] reached = new boolean[cfg.getBlockCount()];
+        Deque<Integer> worklist = new ArrayDeque<>();
+        reached[0] = true;
+        worklist.push(0);
+        while (!worklist.isEmpty()) {
+            int block = worklist.pop();
+            for (int s = 0; s < cfg.getSuccessorCount(block); s++) {
+                int successor = cfg.getSuccessor(block, s);
+                if (reached[successor]) continue;
+                reached[successor] = true;
+                worklist.push(successor);
+            }
+        }
+
+        // the function name label before the first block is always kept
+        int kept = cfg.getBlockStart(0);
+        for (int block = 0; block < cfg.getBlockCount(); block++) {
+            if (!reached[block]) continue;
+            for (int i = cfg.getBlockStart(block); i < cfg.getBlockEnd(block); i++) {
+                instructions.set(kept++, instructions.get(i));
+            }
+        }
+        if (kept == instructions.size()) return false;
+        instructions.subList(kept, instructions.size()).clear();
+        return true;
+    }
+}
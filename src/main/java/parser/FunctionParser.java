@@ -1,6 +1,7 @@
 package parser;
 
 import ir_instructions.IRInstruction;
+import ir_instructions.SymbolTable;
 import regalloc.FunctionData;
 
 import java.util.ArrayList;
@@ -21,29 +22,18 @@ public class FunctionParser {
         List<String> localIntVariables = new ArrayList<>();
         List<String> localFloatVariables = new ArrayList<>();
         List<IRInstruction> IRInstructions = new ArrayList<>();
+        SymbolTable symbols = new SymbolTable();
         String parameterLine = lines.get(1);
         String localLineInts = lines.get(2);
         String localLineFloats = lines.get(3);
 
-        parameterLine = parameterLine.substring(parameterLine.indexOf('(') + 1, parameterLine.indexOf(')'));
+        parseParameters(parameterLine, parameters, isParameterFlotList);
         localLineInts = localLineInts.substring(localLineInts.indexOf(':') + 1);
         localLineFloats = localLineFloats.substring(localLineFloats.indexOf(':') + 1);
 
-        String[] params = parameterLine.split(",");
         String[] intLocals = localLineInts.split(",");
         String[] floatLocals = localLineFloats.split(",");
 
-        for (String param : params) {
-            if (param.contains("int")) {
-                parameters.add(param.trim().replace("int ", ""));
-                isParameterFlotList.add(false);
-            }
-            if (param.contains("float")) {
-                parameters.add(param.trim().replace("float ", ""));
-                isParameterFlotList.add(true);
-            }
-        }
-
         for (String local : intLocals) {
             if (!local.isEmpty())
                 localIntVariables.add(local.trim());
@@ -54,13 +44,34 @@ public class FunctionParser {
                 localFloatVariables.add(local.trim());
         }
 
+        // declared names first, so every local and parameter has an id even if it is never used
+        for (String local : localIntVariables) symbols.intern(isVariableArray(local) ? getArrayName(local) : local);
+        for (String local : localFloatVariables) symbols.intern(isVariableArray(local) ? getArrayName(local) : local);
+        for (String parameter : parameters) symbols.intern(parameter);
+
         for (int i = 4; i < lines.size(); i++) {
-            IRInstructions.add(instructionParser.parse(lines.get(i)));
+            IRInstructions.add(instructionParser.parse(lines.get(i), symbols));
         }
 
-        return new FunctionData(localIntVariables, localFloatVariables, parameters, isParameterFlotList, IRInstructions);
+        return new FunctionData(localIntVariables, localFloatVariables, parameters, isParameterFlotList, IRInstructions, symbols);
     }
 
+    /**
+     * adds name and type of every parameter of a signature line like "int f(int a, float b):"
+     */
+    static void parseParameters(String signatureLine, List<String> parameters, List<Boolean> isParameterFlotList) {
+        String parameterLine = signatureLine.substring(signatureLine.indexOf('(') + 1, signatureLine.indexOf(')'));
+        for (String param : parameterLine.split(",")) {
+            if (param.contains("int")) {
+                parameters.add(param.trim().replace("int ", ""));
+                isParameterFlotList.add(false);
+            }
+            if (param.contains("float")) {
+                parameters.add(param.trim().replace("float ", ""));
+                isParameterFlotList.add(true);
+            }
+        }
+    }
 
     private boolean isVariableArray(String variableName) {
         return variableName.contains("[");
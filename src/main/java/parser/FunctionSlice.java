@@ -0,0 +1,62 @@
+package parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * lines of one function as a view over the mapped IR file
+ * line boundaries are found on first access, a line becomes a String only when it is requested
+ * every slice owns its own buffer, so slices can be read from different threads
+ */
+class FunctionSlice extends AbstractList<String> implements RandomAccess {
+    private final ByteBuffer buffer;
+    // lineStarts[i] is the first byte of line i, lineStarts[lineCount] is one past the last line break
+    private int[] lineStarts;
+    private int lineCount;
+
+    FunctionSlice(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public String get(int index) {
+        index();
+        if (index < 0 || index >= lineCount) throw new IndexOutOfBoundsException(index);
+        int start = lineStarts[index];
+        int end = lineStarts[index + 1] - 1;
+        if (end > start && buffer.get(end - 1) == '\r') end--;
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public int size() {
+        index();
+        return lineCount;
+    }
+
+    /**
+     * finds the line boundaries now instead of on first access
+     */
+    void index() {
+        if (lineStarts != null) return;
+        int limit = buffer.limit();
+        int[] starts = new int[16];
+        int count = 0;
+        int start = 0;
+        while (start < limit) {
+            if (count + 1 >= starts.length) starts = Arrays.copyOf(starts, starts.length * 2);
+            starts[count++] = start;
+            int end = start;
+            while (end < limit && buffer.get(end) != '\n') end++;
+            start = end + 1;
+        }
+        starts[count] = start;
+        lineCount = count;
+        lineStarts = starts;
+    }
+}
@@ -1,34 +1,115 @@
 package parser;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
+/**
+ * memory maps the IR file and indexes the byte ranges of its functions in one pass
+ * functions are handed out as views over the mapping, nothing is copied until a line is read
+ */
 public class Parser {
-    private final List<String> lines;
+    private static final byte[] START_FUNCTION = "start_function".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END_FUNCTION = "end_function".getBytes(StandardCharsets.US_ASCII);
+
+    private final MappedByteBuffer buffer;
+    // byte range of every function: from its start_function line up to, not including, its end_function line
+    private int[] functionStarts;
+    private int[] functionEnds;
+    private int functionCount;
     private final Set<String> floatVars;
     private final List<String> staticVariables;
     private final HashMap<String, Integer> staticArrays;
-    private int currLine;
-
-    public Parser(String filePath) throws FileNotFoundException {
-        lines = new ArrayList<>();
-        currLine = 0;
-        File file = new File(filePath);
-        Scanner scanner = new Scanner(file);
-        while (scanner.hasNextLine()) {
-            lines.add(scanner.nextLine());
+    // parameter types of every function by name, callers need them before the callee is parsed
+    private final Map<String, List<Boolean>> functionFloatParameters;
+    private int currFunction;
+
+    public Parser(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("IR file is larger than 2 GB: " + filePath);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
         }
-        scanner.close();
+        currFunction = 0;
         floatVars = new HashSet<>();
         staticArrays = new HashMap<>();
         staticVariables = new ArrayList<>();
+        functionFloatParameters = new HashMap<>();
+        indexFunctions();
         generateStaticVars();
     }
 
+    private void indexFunctions() {
+        functionStarts = new int[16];
+        functionEnds = new int[16];
+        int limit = buffer.limit();
+        int functionStart = -1;
+        for (int lineStart = 0; lineStart < limit; ) {
+            if (functionStart < 0 && startsWith(lineStart, START_FUNCTION)) {
+                functionStart = lineStart;
+                indexSignature(lineStart);
+            } else if (functionStart >= 0 && startsWith(lineStart, END_FUNCTION)) {
+                if (functionCount == functionStarts.length) {
+                    functionStarts = Arrays.copyOf(functionStarts, functionCount * 2);
+                    functionEnds = Arrays.copyOf(functionEnds, functionCount * 2);
+                }
+                functionStarts[functionCount] = functionStart;
+                functionEnds[functionCount] = lineStart;
+                functionCount++;
+                functionStart = -1;
+            }
+            while (lineStart < limit && buffer.get(lineStart) != '\n') lineStart++;
+            lineStart++;
+        }
+    }
+
+    /**
+     * records the parameter types from the signature line following the start_function line at offset
+     */
+    private void indexSignature(int offset) {
+        int signatureStart = lineEnd(offset) + 1;
+        if (signatureStart >= buffer.limit()) return;
+        String signature = line(signatureStart);
+        int parenthesis = signature.indexOf('(');
+        if (parenthesis < 0 || signature.indexOf(')') < 0) return;
+        String[] declaration = signature.substring(0, parenthesis).trim().split("\\s+");
+        List<String> parameters = new ArrayList<>();
+        List<Boolean> isParameterFloat = new ArrayList<>();
+        FunctionParser.parseParameters(signature, parameters, isParameterFloat);
+        functionFloatParameters.put(declaration[declaration.length - 1], isParameterFloat);
+    }
+
+    private int lineEnd(int offset) {
+        int end = offset;
+        while (end < buffer.limit() && buffer.get(end) != '\n') end++;
+        return end;
+    }
+
+    private String line(int offset) {
+        int end = lineEnd(offset);
+        if (end > offset && buffer.get(end - 1) == '\r') end--;
+        byte[] bytes = new byte[end - offset];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private boolean startsWith(int offset, byte[] prefix) {
+        if (offset + prefix.length > buffer.limit()) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(offset + i) != prefix[i]) return false;
+        }
+        return true;
+    }
+
     public void generateStaticVars() {
-        String intStaticLine = lines.get(1);
-        String floatStaticLine = lines.get(2);
+        // program header is everything before the first function
+        int headerEnd = functionCount > 0 ? functionStarts[0] : buffer.limit();
+        List<String> header = new FunctionSlice(buffer.slice(0, headerEnd));
+        String intStaticLine = header.get(1);
+        String floatStaticLine = header.get(2);
         intStaticLine = intStaticLine.substring(intStaticLine.indexOf(':') + 1);
         String[] intStatics = intStaticLine.split(",");
         floatStaticLine = floatStaticLine.substring(floatStaticLine.indexOf(':') + 1);
@@ -75,19 +156,44 @@ public class Parser {
         return staticVariables;
     }
 
+    /**
+     * returns for every function of the program whether each of its parameters is a float
+     */
+    public Map<String, List<Boolean>> getFunctionFloatParameters() {
+        return functionFloatParameters;
+    }
+
+    /**
+     * starts handing out functions from the beginning of the file again
+     */
+    public void reset() {
+        currFunction = 0;
+    }
+
+    /**
+     * returns lines of the next function without its end_function line, or null after the last one
+     * the list is a read only view over the mapped file
+     */
     public List<String> getNextFunction() {
-        List<String> functionLines = new ArrayList<>();
-        while (currLine < lines.size()) {
-            if (lines.get(currLine).startsWith("start_function")) {
-                do {
-                    functionLines.add(lines.get(currLine));
-                    currLine++;
-                } while (!lines.get(currLine).startsWith("end_function"));
-                return functionLines;
-            }
-            currLine++;
-        }
-        return null;
+        return nextSlice();
+    }
+
+    /**
+     * returns lines of the next function like getNextFunction, with its line boundaries already found
+     * so the cost of reading the function is paid here and not by its first reader
+     */
+    public List<String> getNextIndexedFunction() {
+        FunctionSlice function = nextSlice();
+        if (function != null) function.index();
+        return function;
+    }
+
+    private FunctionSlice nextSlice() {
+        if (currFunction == functionCount) return null;
+        int start = functionStarts[currFunction];
+        int end = functionEnds[currFunction];
+        currFunction++;
+        return new FunctionSlice(buffer.slice(start, end - start));
     }
 
 
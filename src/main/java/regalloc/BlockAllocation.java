@@ -0,0 +1,70 @@
+package regalloc;
+
+import java.util.Map;
+import java.util.Set;
+
+public class BlockAllocation {
+    private final int start;
+    private final int end;
+    private final Map<String, String> variableRegisters;
+    private final Set<String> loadedVariables;
+    private final Set<String> storedVariables;
+
+    public BlockAllocation(int start,
+                           int end,
+                           Map<String, String> variableRegisters,
+                           Set<String> loadedVariables,
+                           Set<String> storedVariables) {
+        this.start = start;
+        this.end = end;
+        this.variableRegisters = variableRegisters;
+        this.loadedVariables = loadedVariables;
+        this.storedVariables = storedVariables;
+    }
+
+    /**
+     * returns index of the first instruction of the block
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * returns index of the instruction after the last instruction of the block
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * returns registers assigned to variables inside the block
+     */
+    public Map<String, String> getVariableRegisters() {
+        return variableRegisters;
+    }
+
+    /**
+     * returns variables which must be loaded in their registers at block entry
+     */
+    public Set<String> getLoadedVariables() {
+        return loadedVariables;
+    }
+
+    /**
+     * returns variables which must be stored back in memory at block exit
+     */
+    public Set<String> getStoredVariables() {
+        return storedVariables;
+    }
+
+    @Override
+    public String toString() {
+        return "BlockAllocation{" +
+                "start=" + start +
+                ", end=" + end +
+                ", variableRegisters=" + variableRegisters +
+                ", loadedVariables=" + loadedVariables +
+                ", storedVariables=" + storedVariables +
+                '}';
+    }
+}
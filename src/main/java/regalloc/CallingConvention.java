@@ -0,0 +1,44 @@
+package regalloc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * the first four int parameters are passed in $a0 - $a3 and the first two float parameters in $f12 and $f14,
+ * the rest on the stack where the caller stores them below its $sp in parameter order before moving $sp past them
+ */
+public class CallingConvention {
+    public static final List<String> INTEGER_ARGUMENT_REGISTERS = List.of("$a0", "$a1", "$a2", "$a3");
+    public static final List<String> FLOAT_ARGUMENT_REGISTERS = List.of("$f12", "$f14");
+
+    private CallingConvention() {
+    }
+
+    /**
+     * returns argument register of every parameter, null for the ones passed on the stack
+     */
+    public static List<String> getArgumentRegisters(List<Boolean> isParameterFloat) {
+        List<String> registers = new ArrayList<>(isParameterFloat.size());
+        int integers = 0;
+        int floats = 0;
+        for (boolean isFloat : isParameterFloat) {
+            if (isFloat) {
+                registers.add(floats < FLOAT_ARGUMENT_REGISTERS.size() ? FLOAT_ARGUMENT_REGISTERS.get(floats++) : null);
+            } else {
+                registers.add(integers < INTEGER_ARGUMENT_REGISTERS.size() ? INTEGER_ARGUMENT_REGISTERS.get(integers++) : null);
+            }
+        }
+        return registers;
+    }
+
+    /**
+     * returns number of parameters passed on the stack
+     */
+    public static int getStackParameterCount(List<String> argumentRegisters) {
+        int count = 0;
+        for (String register : argumentRegisters) {
+            if (register == null) count++;
+        }
+        return count;
+    }
+}
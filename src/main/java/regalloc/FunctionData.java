@@ -1,8 +1,13 @@
 package regalloc;
 
 import ir_instructions.IRInstruction;
+import ir_instructions.InstructionType;
+import ir_instructions.SymbolTable;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class FunctionData {
     private final List<String> localIntVariables;
@@ -11,13 +16,15 @@ public class FunctionData {
     private final List<Boolean> isParameterFlotList;
 
     private final List<IRInstruction> IRInstructions;
+    private final SymbolTable symbols;
 
-    public FunctionData(List<String> localIntVariables, List<String> localFloatVariables, List<String> parameters, List<Boolean> isParameterFlotList, List<IRInstruction> IRInstructions) {
+    public FunctionData(List<String> localIntVariables, List<String> localFloatVariables, List<String> parameters, List<Boolean> isParameterFlotList, List<IRInstruction> IRInstructions, SymbolTable symbols) {
         this.localIntVariables = localIntVariables;
         this.localFloatVariables = localFloatVariables;
         this.parameters = parameters;
         this.isParameterFlotList = isParameterFlotList;
         this.IRInstructions = IRInstructions;
+        this.symbols = symbols;
     }
 
     public List<String> getLocalIntVariables() {
@@ -40,6 +47,67 @@ public class FunctionData {
         return IRInstructions;
     }
 
+    /**
+     * returns ids of every name used by the function
+     */
+    public SymbolTable getSymbolTable() {
+        return symbols;
+    }
+
+    /**
+     * returns non array locals and parameters, the variables which may be kept in registers
+     */
+    public List<String> getScalarVariables() {
+        List<String> variables = new ArrayList<>();
+        for (String local : localIntVariables) {
+            if (!local.contains("[")) variables.add(local);
+        }
+        for (String local : localFloatVariables) {
+            if (!local.contains("[")) variables.add(local);
+        }
+        variables.addAll(parameters);
+        return variables;
+    }
+
+    /**
+     * returns float locals, array names without their size, and float parameters
+     */
+    public Set<String> getFloatVariables() {
+        Set<String> floatVariables = new HashSet<>();
+        for (String local : localFloatVariables) {
+            floatVariables.add(local.contains("[") ? local.substring(0, local.indexOf('[')) : local);
+        }
+        for (int i = 0; i < isParameterFlotList.size(); i++) {
+            if (isParameterFlotList.get(i)) floatVariables.add(parameters.get(i));
+        }
+        return floatVariables;
+    }
+
+    /**
+     * returns every name some instruction reads or writes, locals and parameters missing from it need no storage
+     */
+    public Set<String> getReferencedVariables() {
+        Set<String> referenced = new HashSet<>();
+        for (IRInstruction instruction : IRInstructions) {
+            List<String> arguments = instruction.getArguments();
+            for (int i = 0; i < arguments.size(); i++) {
+                if (instruction.getArgumentId(i) != SymbolTable.NO_SYMBOL) referenced.add(arguments.get(i));
+            }
+        }
+        return referenced;
+    }
+
+    /**
+     * returns whether the function calls anything, library functions included, and so overwrites $ra
+     */
+    public boolean hasCalls() {
+        for (IRInstruction instruction : IRInstructions) {
+            InstructionType type = instruction.getInstructionType();
+            if (type == InstructionType.CALL || type == InstructionType.CALLR) return true;
+        }
+        return false;
+    }
+
     @Override
     public String toString() {
         return "FunctionData{" +
@@ -1,18 +1,34 @@
 package regalloc;
 
 
-import java.util.Map;
-import java.util.Set;
+import ir_instructions.SymbolTable;
 
+import java.util.*;
+
+/**
+ * location of every symbol of a function, indexed by symbol id
+ * allocators describe the frame with name keyed maps, they are flattened into arrays once on construction
+ * so the code generator pays an array access instead of several hash lookups per operand
+ */
 public class MemoryTable {
-    private final Map<String, Integer> stackVariableOffsets;
-    private final Map<String, Integer> savedRegisterOffsets;
-    private final Map<String, String> variableRegisters;
-    private final Map<String, Integer> arrays;
+    private static final byte LOCATION_NONE = 0;
+    private static final byte LOCATION_STACK = 1;
+    private static final byte LOCATION_STATIC = 2;
+    private static final int NOT_ARRAY = -1;
+
+    private final SymbolTable symbols;
+    private final byte[] locations;
+    private final int[] stackOffsets;
+    private final int[] arraySizes;
+    private final String[] registers;
+    private final boolean[] floats;
+    // registers of the active block, they take precedence over the function wide ones
+    private final String[] blockRegisters;
 
-    private final Set<String> staticVariables;
-    private final Set<String> floatVariables;
+    private final Map<String, Integer> savedRegisterOffsets;
     private final int frameSize;
+    private final List<BlockAllocation> blockAllocations;
+    private BlockAllocation activeBlock;
 
     public MemoryTable(Map<String, Integer> stackVariableOffsets,
                        Map<String, Integer> savedRegisterOffsets,
@@ -20,29 +36,57 @@ public class MemoryTable {
                        Map<String, Integer> arrays,
                        Set<String> staticVariables,
                        Set<String> floatVariables,
-                       int frameSize) {
-        this.stackVariableOffsets = stackVariableOffsets;
+                       int frameSize,
+                       List<BlockAllocation> blockAllocations,
+                       SymbolTable symbols) {
+        this.symbols = symbols;
         this.savedRegisterOffsets = savedRegisterOffsets;
-        this.variableRegisters = variableRegisters;
-        this.staticVariables = staticVariables;
-        this.arrays = arrays;
-        this.floatVariables = floatVariables;
         this.frameSize = frameSize;
+        this.blockAllocations = blockAllocations;
+
+        int symbolCount = symbols.size();
+        locations = new byte[symbolCount];
+        stackOffsets = new int[symbolCount];
+        arraySizes = new int[symbolCount];
+        registers = new String[symbolCount];
+        floats = new boolean[symbolCount];
+        blockRegisters = new String[symbolCount];
+        for (int id = 0; id < symbolCount; id++) {
+            String name = symbols.getName(id);
+            Integer offset = stackVariableOffsets.get(name);
+            if (offset != null) {
+                locations[id] = LOCATION_STACK;
+                stackOffsets[id] = offset;
+            } else if (staticVariables.contains(name)) {
+                locations[id] = LOCATION_STATIC;
+            }
+            arraySizes[id] = arrays.getOrDefault(name, NOT_ARRAY);
+            registers[id] = variableRegisters.get(name);
+            floats[id] = floatVariables.contains(name);
+        }
     }
 
     /**
      * returns the offset of the variable
      */
+    public int getStackVariableOffset(int id) {
+        return stackOffsets[id];
+    }
+
     public int getStackVariableOffset(String variableName) {
-        return stackVariableOffsets.get(variableName);
+        return getStackVariableOffset(symbols.getId(variableName));
     }
 
     /**
      * returns the register where the variable is located
-     * should be called when the return value of isVariableInRegister(String variableName) is true
+     * should be called when the return value of isVariableInRegister(int id) is true
      */
+    public String getVariableRegister(int id) {
+        return blockRegisters[id] != null ? blockRegisters[id] : registers[id];
+    }
+
     public String getVariableRegister(String variableName) {
-        return variableRegisters.get(variableName);
+        return getVariableRegister(symbols.getId(variableName));
     }
 
     /**
@@ -52,11 +96,48 @@ public class MemoryTable {
         return savedRegisterOffsets.get(registerName);
     }
 
+    /**
+     * returns registers which must be saved on function entry, ordered by their offsets
+     */
+    public List<String> getSavedRegisters() {
+        return savedRegisterOffsets.keySet().stream().sorted(Comparator.comparing(savedRegisterOffsets::get)).toList();
+    }
+
+    /**
+     * returns per block register assignments ordered by block start, empty if the allocator does not use them
+     */
+    public List<BlockAllocation> getBlockAllocations() {
+        return blockAllocations;
+    }
+
+    /**
+     * makes register assignments of the block visible until exitBlock() is called
+     */
+    public void enterBlock(BlockAllocation block) {
+        exitBlock();
+        activeBlock = block;
+        for (Map.Entry<String, String> entry : block.getVariableRegisters().entrySet()) {
+            blockRegisters[symbols.getId(entry.getKey())] = entry.getValue();
+        }
+    }
+
+    public void exitBlock() {
+        if (activeBlock == null) return;
+        for (String variable : activeBlock.getVariableRegisters().keySet()) {
+            blockRegisters[symbols.getId(variable)] = null;
+        }
+        activeBlock = null;
+    }
+
     /**
      * returns size of an array
      */
+    public int getArraySize(int id) {
+        return arraySizes[id];
+    }
+
     public int getArraySize(String arrayName) {
-        return arrays.get(arrayName);
+        return getArraySize(symbols.getId(arrayName));
     }
 
     /**
@@ -67,47 +148,81 @@ public class MemoryTable {
     }
 
     /**
-     * returns whether a variable is in a register or not
+     * returns whether a variable is in a register or not, constants (SymbolTable.NO_SYMBOL) never are
      */
+    public boolean isVariableInRegister(int id) {
+        return id != SymbolTable.NO_SYMBOL && (blockRegisters[id] != null || registers[id] != null);
+    }
+
     public boolean isVariableInRegister(String variableName) {
-        return variableRegisters.containsKey(variableName);
+        return isVariableInRegister(symbols.getId(variableName));
     }
 
     /**
      * returns whether a variable is an array or not (stack or static)
      */
+    public boolean isVariableArray(int id) {
+        return id != SymbolTable.NO_SYMBOL && arraySizes[id] != NOT_ARRAY;
+    }
+
     public boolean isVariableArray(String variableName) {
-        return arrays.containsKey(variableName);
+        return isVariableArray(symbols.getId(variableName));
     }
 
     /**
      * returns whether a variable is a stack variable or not
      */
+    public boolean isVariableStack(int id) {
+        return id != SymbolTable.NO_SYMBOL && locations[id] == LOCATION_STACK;
+    }
+
     public boolean isVariableStack(String variableName) {
-        return stackVariableOffsets.containsKey(variableName);
+        return isVariableStack(symbols.getId(variableName));
     }
 
     /**
      * returns whether a variable is a static variable or not
      */
+    public boolean isVariableStatic(int id) {
+        return id != SymbolTable.NO_SYMBOL && locations[id] == LOCATION_STATIC;
+    }
+
     public boolean isVariableStatic(String variableName) {
-        return staticVariables.contains(variableName);
+        return isVariableStatic(symbols.getId(variableName));
+    }
+
+    public boolean isVariableFloat(int id) {
+        return id != SymbolTable.NO_SYMBOL && floats[id];
     }
 
     public boolean isVariableFloat(String variableName) {
-        return floatVariables.contains(variableName);
+        return isVariableFloat(symbols.getId(variableName));
+    }
+
+    /**
+     * returns name of the symbol, static variables are addressed by it
+     */
+    public String getSymbolName(int id) {
+        return symbols.getName(id);
     }
 
     @Override
     public String toString() {
+        StringBuilder variables = new StringBuilder();
+        for (int id = 0; id < locations.length; id++) {
+            if (locations[id] == LOCATION_NONE) continue;
+            variables.append(symbols.getName(id))
+                    .append(locations[id] == LOCATION_STACK ? "=stack:" + stackOffsets[id] : "=static")
+                    .append(registers[id] != null ? "/" + registers[id] : "")
+                    .append(arraySizes[id] != NOT_ARRAY ? "[" + arraySizes[id] + "]" : "")
+                    .append(floats[id] ? " float" : "")
+                    .append(", ");
+        }
         return "MemoryTable{" +
-                "stackVariableOffsets=" + stackVariableOffsets +
+                "variables={" + variables + "}" +
                 ", savedRegisterOffsets=" + savedRegisterOffsets +
-                ", variableRegisters=" + variableRegisters +
-                ", arrays=" + arrays +
-                ", staticVariables=" + staticVariables +
-                ", floatVariables=" + floatVariables +
                 ", frameSize=" + frameSize +
+                ", blockAllocations=" + blockAllocations +
                 '}';
     }
 }
@@ -0,0 +1,140 @@
+package regalloc.allocator;
+
+import regalloc.CallingConvention;
+import regalloc.FunctionData;
+
+import java.util.*;
+
+/**
+ * stack frame shared by all allocators: locals, register parameters, saved registers and stack parameters
+ * every local and register parameter not kept in a register for the whole function gets a home slot in the frame,
+ * parameters passed on the stack stay where the caller stored them, right above the frame
+ */
+class FrameLayout {
+    private final Map<String, Integer> stackVariableOffsets;
+    private final Map<String, Integer> savedRegisterOffsets;
+    private final Map<String, Integer> arrays;
+    private final Set<String> floatVariables;
+    private final int frameSize;
+
+    FrameLayout(FunctionData functionData, Map<String, Integer> arrays, Set<String> floatVariables, List<String> savedRegisters) {
+        this(functionData, arrays, floatVariables, savedRegisters, Set.of());
+    }
+
+    /**
+     * locals and register parameters in registerVariables stay in their register for the whole function
+     * and get no home slot, a leaf function whose variables all fit in registers has an empty frame
+     */
+    FrameLayout(FunctionData functionData, Map<String, Integer> arrays, Set<String> floatVariables, List<String> savedRegisters,
+                Set<String> registerVariables) {
+        this.arrays = arrays;
+        this.floatVariables = collectFloatVariables(functionData, floatVariables);
+        this.stackVariableOffsets = new HashMap<>();
+        this.savedRegisterOffsets = new HashMap<>();
+
+        // locals and register parameters no instruction mentions get no slot, stack parameters keep theirs
+        Set<String> referenced = functionData.getReferencedVariables();
+        List<String> parameters = functionData.getIntParameters();
+        List<String> argumentRegisters = CallingConvention.getArgumentRegisters(functionData.getFloatParameters());
+        List<String> registerParameterList = new ArrayList<>();
+        List<String> stackParameterList = new ArrayList<>();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (argumentRegisters.get(i) == null) {
+                stackParameterList.add(parameters.get(i));
+            } else if (!registerVariables.contains(parameters.get(i)) && referenced.contains(parameters.get(i))) {
+                registerParameterList.add(parameters.get(i));
+            }
+        }
+        List<String> localIntVariableList = new ArrayList<>(functionData.getLocalIntVariables());
+        List<String> localFloatVariableList = new ArrayList<>(functionData.getLocalFloatVariables());
+        localIntVariableList.removeAll(registerVariables);
+        localFloatVariableList.removeAll(registerVariables);
+        localIntVariableList.removeIf(local -> !referenced.contains(getArrayName(local)));
+        localFloatVariableList.removeIf(local -> !referenced.contains(getArrayName(local)));
+
+        Collections.reverse(localIntVariableList);
+        Collections.reverse(localFloatVariableList);
+
+        int offset = 0;
+        offset = allocateVars(localIntVariableList, offset);
+        offset = allocateVars(localFloatVariableList, offset);
+        offset = allocateVars(registerParameterList, offset);
+
+        for (String registerName : savedRegisters) {
+            savedRegisterOffsets.put(registerName, offset);
+            offset += 4;
+        }
+
+        offset = allocateVars(stackParameterList, offset);
+
+        frameSize = offset - stackParameterList.size() * 4;
+    }
+
+    /**
+     * returns callee saved registers the allocation actually uses, in the given order, and $ra if the function calls
+     */
+    static List<String> collectSavedRegisters(FunctionData functionData, List<String> calleeSavedRegisters, Set<String> usedRegisters) {
+        List<String> savedRegisters = new ArrayList<>();
+        calleeSavedRegisters.stream().filter(usedRegisters::contains).forEach(savedRegisters::add);
+        if (functionData.hasCalls()) savedRegisters.add("$ra");
+        return savedRegisters;
+    }
+
+    /**
+     * returns global float variables together with the float locals and parameters of the function
+     */
+    static Set<String> collectFloatVariables(FunctionData functionData, Set<String> globalFloatVariables) {
+        Set<String> floatVariables = new HashSet<>(globalFloatVariables);
+        floatVariables.addAll(functionData.getFloatVariables());
+        return floatVariables;
+    }
+
+    Map<String, Integer> getStackVariableOffsets() {
+        return stackVariableOffsets;
+    }
+
+    Map<String, Integer> getSavedRegisterOffsets() {
+        return savedRegisterOffsets;
+    }
+
+    Map<String, Integer> getArrays() {
+        return arrays;
+    }
+
+    Set<String> getFloatVariables() {
+        return floatVariables;
+    }
+
+    int getFrameSize() {
+        return frameSize;
+    }
+
+    private static boolean isVariableArray(String variableName) {
+        return variableName.contains("[");
+    }
+
+    private static int getArraySize(String variableName) {
+        return Integer.parseInt(variableName.substring(variableName.indexOf('[') + 1, variableName.indexOf(']')));
+    }
+
+    private static String getArrayName(String variableName) {
+        if (!isVariableArray(variableName))
+            return variableName;
+        return variableName.substring(0, variableName.indexOf('['));
+    }
+
+    private int allocateVars(List<String> localVariableList, int offset) {
+        for (String currVariable : localVariableList) {
+            if (isVariableArray(currVariable)) {
+                int size = getArraySize(currVariable);
+                stackVariableOffsets.put(getArrayName(currVariable), offset);
+                arrays.put(getArrayName(currVariable), size);
+                offset += size * 4;
+            } else {
+                stackVariableOffsets.put(currVariable, offset);
+                offset += 4;
+            }
+        }
+        return offset;
+    }
+}
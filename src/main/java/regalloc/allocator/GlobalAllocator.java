@@ -1,25 +1,309 @@
 package regalloc.allocator;
 
+import cfg.ControlFlowGraph;
+import ir_instructions.IRInstruction;
+import ir_instructions.InstructionType;
+import liveness.BitSets;
+import liveness.LivenessAnalysis;
 import regalloc.FunctionData;
 import regalloc.MemoryTable;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
+/**
+ * whole function Briggs style graph coloring
+ * every scalar local or parameter is one live range, copies between them are coalesced conservatively
+ * and live ranges which do not get a color simply stay in their stack slots
+ */
 public class GlobalAllocator implements Allocator {
+    private final static List<String> savedIntegerRegisters = List.of("$s0", "$s1", "$s2", "$s3", "$s4", "$s5", "$s6", "$s7");
+    // $t0 - $t2 are scratch registers of the code generator
+    private final static List<String> tempIntegerRegisters = List.of("$t3", "$t4", "$t5", "$t6", "$t7");
+    private final static List<String> savedFloatRegisters = List.of("$f20", "$f22", "$f24", "$f26", "$f28", "$f30");
+    // $f4 - $f8 are scratch registers of the code generator, $f12 and $f14 carry arguments
+    private final static List<String> tempFloatRegisters = List.of("$f10", "$f16", "$f18");
+
     private final FunctionData functionData;
     private final Set<String> staticVariables;
     private final Map<String, Integer> arrays;
+    private final Set<String> floatVariables;
+
+    private List<String> variables;
+    private LivenessAnalysis liveness;
+    private boolean[] isFloat;
+    private boolean[] crossesCall;
+    private double[] spillCost;
+    // neighbors counted by the current coalescing test carry its stamp, so the array is never cleared
+    private int[] countedStamps;
+    private int countStamp;
 
-    public GlobalAllocator(FunctionData functionData, Map<String, Integer> staticArrays, Set<String> staticVariables) {
+    public GlobalAllocator(FunctionData functionData, Map<String, Integer> staticArrays, Set<String> staticVariables, Set<String> floatVariables) {
         this.functionData = functionData;
         this.staticVariables = staticVariables;
         this.arrays = new HashMap<>(staticArrays);
+        this.floatVariables = floatVariables;
     }
 
     @Override
     public MemoryTable allocate() {
-        return null;
+        List<IRInstruction> instructions = functionData.getInstructions();
+        Set<String> floats = FrameLayout.collectFloatVariables(functionData, floatVariables);
+
+        // static variables are shared with callees, so they always stay in memory
+        variables = new ArrayList<>(functionData.getScalarVariables());
+        variables.removeAll(staticVariables);
+        variables.retainAll(functionData.getReferencedVariables());
+        isFloat = new boolean[variables.size()];
+        for (int i = 0; i < variables.size(); i++) {
+            isFloat[i] = floats.contains(variables.get(i));
+        }
+        crossesCall = new boolean[variables.size()];
+        spillCost = new double[variables.size()];
+        liveness = new LivenessAnalysis(new ControlFlowGraph(instructions), variables);
+
+        InterferenceGraph graph = buildInterferenceGraph(instructions);
+        coalesce(graph, instructions);
+        String[] colors = color(graph, simplify(graph));
+
+        Map<String, String> variableRegisters = new HashMap<>();
+        Set<String> usedRegisters = new HashSet<>();
+        for (int i = 0; i < variables.size(); i++) {
+            String register = colors[graph.find(i)];
+            if (register == null) continue;
+            variableRegisters.put(variables.get(i), register);
+            usedRegisters.add(register);
+        }
+
+        List<String> calleeSavedRegisters = new ArrayList<>(savedIntegerRegisters);
+        calleeSavedRegisters.addAll(savedFloatRegisters);
+        List<String> savedRegisters = FrameLayout.collectSavedRegisters(functionData, calleeSavedRegisters, usedRegisters);
+
+        // a colored live range never touches memory, parameters still arrive in their slots
+        FrameLayout frameLayout = new FrameLayout(functionData, arrays, floatVariables, savedRegisters, variableRegisters.keySet());
+
+        return new MemoryTable(frameLayout.getStackVariableOffsets(), frameLayout.getSavedRegisterOffsets(), variableRegisters,
+                frameLayout.getArrays(), staticVariables, frameLayout.getFloatVariables(), frameLayout.getFrameSize(), new ArrayList<>(),
+                functionData.getSymbolTable());
+    }
+
+    private InterferenceGraph buildInterferenceGraph(List<IRInstruction> instructions) {
+        ControlFlowGraph cfg = liveness.getControlFlowGraph();
+        int[] loopDepth = estimateLoopDepth(cfg);
+
+        InterferenceGraph graph = new InterferenceGraph(variables.size());
+        for (int block = 0; block < cfg.getBlockCount(); block++) {
+            liveness.forEachInstructionBackward(block, (index, instruction, live) -> {
+                double weight = Math.pow(10, Math.min(loopDepth[index], 6));
+                Integer defined = getDefinedId(instruction);
+                InstructionType type = instruction.getInstructionType();
+
+                if (type == InstructionType.CALL || type == InstructionType.CALLR) {
+                    // everything alive after the call needs a register the callee preserves
+                    for (int v = BitSets.nextSetBit(live, 0); v >= 0; v = BitSets.nextSetBit(live, v + 1)) {
+                        if (defined == null || v != defined) crossesCall[v] = true;
+                    }
+                }
+
+                if (defined != null) {
+                    spillCost[defined] += weight;
+                    // copy source and destination may share a register, so they do not interfere
+                    Integer copySource = getCopySource(instruction);
+                    for (int v = BitSets.nextSetBit(live, 0); v >= 0; v = BitSets.nextSetBit(live, v + 1)) {
+                        if (v != defined && isFloat[v] == isFloat[defined] && (copySource == null || v != copySource)) {
+                            graph.addEdge(defined, v);
+                        }
+                    }
+                }
+                for (String used : instruction.getUsedOperands()) {
+                    Integer id = liveness.getVariableId(used);
+                    if (id != null) spillCost[id] += weight;
+                }
+            });
+        }
+
+        // parameters arrive together, so they interfere with each other and with everything alive at entry
+        if (cfg.getBlockCount() > 0) {
+            long[] live = liveness.getLiveIn(0).clone();
+            for (String parameter : functionData.getIntParameters()) {
+                Integer id = liveness.getVariableId(parameter);
+                if (id != null) BitSets.set(live, id);
+            }
+            for (int v = BitSets.nextSetBit(live, 0); v >= 0; v = BitSets.nextSetBit(live, v + 1)) {
+                for (int u = BitSets.nextSetBit(live, v + 1); u >= 0; u = BitSets.nextSetBit(live, u + 1)) {
+                    if (isFloat[u] == isFloat[v]) graph.addEdge(u, v);
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Briggs conservative coalescing: copies are merged only if the merged node has less than K neighbors of significant degree
+     */
+    private void coalesce(InterferenceGraph graph, List<IRInstruction> instructions) {
+        countedStamps = new int[graph.size()];
+        countStamp = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (IRInstruction instruction : instructions) {
+                Integer source = getCopySource(instruction);
+                if (source == null) continue;
+                int first = graph.find(getDefinedId(instruction));
+                int second = graph.find(source);
+                if (first == second || isFloat[first] != isFloat[second] || graph.interferes(first, second)) continue;
+
+                boolean mergedCrossesCall = crossesCall[first] || crossesCall[second];
+                int k = getColorCount(isFloat[first], mergedCrossesCall);
+                if (countSignificantNeighbors(graph, first, second) >= k) continue;
+
+                graph.merge(first, second);
+                crossesCall[first] = mergedCrossesCall;
+                spillCost[first] += spillCost[second];
+                changed = true;
+            }
+        }
+    }
+
+    private int countSignificantNeighbors(InterferenceGraph graph, int first, int second) {
+        countStamp++;
+        return countSignificantNeighbors(graph, first) + countSignificantNeighbors(graph, second);
+    }
+
+    /**
+     * counts significant neighbors of node not yet counted under the current stamp
+     */
+    private int countSignificantNeighbors(InterferenceGraph graph, int node) {
+        int significant = 0;
+        for (int i = 0; i < graph.getAdjacencySize(node); i++) {
+            int neighbor = graph.getNeighbor(node, i);
+            if (!graph.isRepresentative(neighbor) || countedStamps[neighbor] == countStamp) continue;
+            countedStamps[neighbor] = countStamp;
+            if (graph.getDegree(neighbor) >= getColorCount(isFloat[neighbor], crossesCall[neighbor])) significant++;
+        }
+        return significant;
+    }
+
+    /**
+     * removes trivially colorable nodes first, when none is left the cheapest node per degree is pushed optimistically
+     */
+    private Deque<Integer> simplify(InterferenceGraph graph) {
+        int nodeCount = graph.size();
+        boolean[] removed = new boolean[nodeCount];
+        Deque<Integer> stack = new ArrayDeque<>();
+        Deque<Integer> lowDegree = new ArrayDeque<>();
+        PriorityQueue<double[]> spillCandidates = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry[0]));
+        int remaining = 0;
+
+        for (int node = 0; node < nodeCount; node++) {
+            if (!graph.isRepresentative(node)) continue;
+            remaining++;
+            if (isLowDegree(graph, node)) lowDegree.add(node);
+            else spillCandidates.add(new double[]{spillCost[node] / graph.getDegree(node), node, graph.getDegree(node)});
+        }
+
+        while (remaining > 0) {
+            int node;
+            if (!lowDegree.isEmpty()) {
+                node = lowDegree.poll();
+                if (removed[node]) continue;
+            } else {
+                double[] candidate = spillCandidates.poll();
+                node = (int) candidate[1];
+                // entries are not updated in place, skip the ones whose degree changed since they were queued
+                if (removed[node] || graph.getDegree(node) != (int) candidate[2]) {
+                    if (!removed[node]) {
+                        spillCandidates.add(new double[]{spillCost[node] / Math.max(1, graph.getDegree(node)), node, graph.getDegree(node)});
+                    }
+                    continue;
+                }
+            }
+
+            graph.remove(node, removed);
+            stack.push(node);
+            remaining--;
+            for (int i = 0; i < graph.getAdjacencySize(node); i++) {
+                int neighbor = graph.getNeighbor(node, i);
+                if (graph.isRepresentative(neighbor) && !removed[neighbor]
+                        && graph.getDegree(neighbor) == getColorCount(isFloat[neighbor], crossesCall[neighbor]) - 1) {
+                    lowDegree.add(neighbor);
+                }
+            }
+        }
+        return stack;
+    }
+
+    private String[] color(InterferenceGraph graph, Deque<Integer> stack) {
+        String[] colors = new String[graph.size()];
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            Set<String> taken = new HashSet<>();
+            for (int i = 0; i < graph.getAdjacencySize(node); i++) {
+                int neighbor = graph.getNeighbor(node, i);
+                if (graph.isRepresentative(neighbor) && colors[neighbor] != null) taken.add(colors[neighbor]);
+            }
+            for (String register : getRegisters(isFloat[node], crossesCall[node])) {
+                if (!taken.contains(register)) {
+                    colors[node] = register;
+                    break;
+                }
+            }
+            // no color left means an actual spill, the live range keeps using its stack slot
+        }
+        return colors;
+    }
+
+    private boolean isLowDegree(InterferenceGraph graph, int node) {
+        return graph.getDegree(node) < getColorCount(isFloat[node], crossesCall[node]);
+    }
+
+    private List<String> getRegisters(boolean isFloat, boolean crossesCall) {
+        List<String> registers = new ArrayList<>();
+        // temporaries are clobbered by callees
+        if (!crossesCall) registers.addAll(isFloat ? tempFloatRegisters : tempIntegerRegisters);
+        registers.addAll(isFloat ? savedFloatRegisters : savedIntegerRegisters);
+        return registers;
+    }
+
+    private int getColorCount(boolean isFloat, boolean crossesCall) {
+        int count = isFloat ? savedFloatRegisters.size() : savedIntegerRegisters.size();
+        if (!crossesCall) count += isFloat ? tempFloatRegisters.size() : tempIntegerRegisters.size();
+        return count;
+    }
+
+    /**
+     * approximates loop nesting: every backward edge adds one level to the instructions between its target and its source
+     */
+    private int[] estimateLoopDepth(ControlFlowGraph cfg) {
+        int[] difference = new int[cfg.getInstructions().size() + 1];
+        for (int block = 0; block < cfg.getBlockCount(); block++) {
+            for (int s = 0; s < cfg.getSuccessorCount(block); s++) {
+                int successor = cfg.getSuccessor(block, s);
+                if (successor <= block) {
+                    difference[cfg.getBlockStart(successor)]++;
+                    difference[cfg.getBlockEnd(block)]--;
+                }
+            }
+        }
+        int[] depth = new int[cfg.getInstructions().size()];
+        int current = 0;
+        for (int i = 0; i < depth.length; i++) {
+            current += difference[i];
+            depth[i] = current;
+        }
+        return depth;
+    }
+
+    private Integer getDefinedId(IRInstruction instruction) {
+        return liveness.getDefinedId(instruction);
+    }
+
+    /**
+     * returns id of the source if the instruction is a copy between two allocatable variables
+     */
+    private Integer getCopySource(IRInstruction instruction) {
+        if (instruction.getInstructionType() != InstructionType.ASSIGN || instruction.getArguments().size() != 2) return null;
+        if (getDefinedId(instruction) == null) return null;
+        return liveness.getVariableId(instruction.getArguments().get(1));
     }
 }
@@ -0,0 +1,164 @@
+package regalloc.allocator;
+
+import java.util.Arrays;
+
+/**
+ * interference graph over dense node ids
+ * edges are kept twice: in a hash set of packed node pairs for constant time queries
+ * and in per node adjacency arrays for iteration, both grow with the number of edges, not nodes squared
+ * coalesced nodes are merged into a representative and skipped from then on
+ */
+class InterferenceGraph {
+    private final int[][] adjacency;
+    private final int[] adjacencySize;
+    private final int[] degree;
+    private final int[] alias;
+    private long[] edges;
+    private int edgeCount;
+
+    private static final long EMPTY = -1;
+
+    InterferenceGraph(int nodeCount) {
+        adjacency = new int[nodeCount][];
+        adjacencySize = new int[nodeCount];
+        degree = new int[nodeCount];
+        alias = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            adjacency[i] = new int[4];
+            alias[i] = i;
+        }
+        edges = new long[64];
+        Arrays.fill(edges, EMPTY);
+    }
+
+    int size() {
+        return alias.length;
+    }
+
+    /**
+     * returns representative of the node, differs from the node itself once it was coalesced
+     */
+    int find(int node) {
+        while (alias[node] != node) {
+            alias[node] = alias[alias[node]];
+            node = alias[node];
+        }
+        return node;
+    }
+
+    boolean isRepresentative(int node) {
+        return alias[node] == node;
+    }
+
+    boolean interferes(int first, int second) {
+        return containsEdge(find(first), find(second));
+    }
+
+    void addEdge(int first, int second) {
+        if (first == second || !insertEdge(first, second)) return;
+        append(first, second);
+        append(second, first);
+        degree[first]++;
+        degree[second]++;
+    }
+
+    /**
+     * returns number of neighbors which are still in the graph
+     */
+    int getDegree(int node) {
+        return degree[node];
+    }
+
+    int getAdjacencySize(int node) {
+        return adjacencySize[node];
+    }
+
+    /**
+     * returns i-th recorded neighbor, stale entries must be filtered with isRepresentative
+     */
+    int getNeighbor(int node, int i) {
+        return adjacency[node][i];
+    }
+
+    /**
+     * merges the second node into the first one, neighbors of both become neighbors of the first
+     */
+    void merge(int into, int from) {
+        alias[from] = into;
+        for (int i = 0; i < adjacencySize[from]; i++) {
+            int neighbor = adjacency[from][i];
+            if (!isRepresentative(neighbor)) continue;
+            if (containsEdge(into, neighbor)) {
+                // neighbor already interfered with both nodes, now it sees only one of them
+                degree[neighbor]--;
+            } else {
+                insertEdge(into, neighbor);
+                append(into, neighbor);
+                append(neighbor, into);
+                degree[into]++;
+            }
+        }
+    }
+
+    /**
+     * removes node from the graph during simplification, neighbors lose one degree
+     */
+    void remove(int node, boolean[] removed) {
+        removed[node] = true;
+        for (int i = 0; i < adjacencySize[node]; i++) {
+            int neighbor = adjacency[node][i];
+            if (isRepresentative(neighbor) && !removed[neighbor]) degree[neighbor]--;
+        }
+    }
+
+    private void append(int node, int neighbor) {
+        if (adjacencySize[node] == adjacency[node].length) {
+            adjacency[node] = Arrays.copyOf(adjacency[node], adjacency[node].length * 2);
+        }
+        adjacency[node][adjacencySize[node]++] = neighbor;
+    }
+
+    private static long key(int first, int second) {
+        return first < second ? ((long) first << 32) | second : ((long) second << 32) | first;
+    }
+
+    private boolean containsEdge(int first, int second) {
+        long key = key(first, second);
+        int mask = edges.length - 1;
+        for (int slot = hash(key) & mask; edges[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (edges[slot] == key) return true;
+        }
+        return false;
+    }
+
+    private boolean insertEdge(int first, int second) {
+        if ((edgeCount + 1) * 2 > edges.length) rehash();
+        long key = key(first, second);
+        int mask = edges.length - 1;
+        int slot = hash(key) & mask;
+        for (; edges[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (edges[slot] == key) return false;
+        }
+        edges[slot] = key;
+        edgeCount++;
+        return true;
+    }
+
+    private void rehash() {
+        long[] old = edges;
+        edges = new long[old.length * 2];
+        Arrays.fill(edges, EMPTY);
+        int mask = edges.length - 1;
+        for (long key : old) {
+            if (key == EMPTY) continue;
+            int slot = hash(key) & mask;
+            while (edges[slot] != EMPTY) slot = (slot + 1) & mask;
+            edges[slot] = key;
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
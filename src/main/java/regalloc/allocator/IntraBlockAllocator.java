@@ -1,25 +1,121 @@
 package regalloc.allocator;
 
+import cfg.ControlFlowGraph;
+import ir_instructions.IRInstruction;
+import ir_instructions.InstructionType;
+import liveness.LivenessAnalysis;
+import regalloc.BlockAllocation;
 import regalloc.FunctionData;
 import regalloc.MemoryTable;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 public class IntraBlockAllocator implements Allocator {
+    private final static List<String> savedIntegerRegisters = List.of("$s0", "$s1", "$s2", "$s3", "$s4", "$s5", "$s6", "$s7");
+    // $t0 - $t2 are scratch registers of the code generator
+    private final static List<String> tempIntegerRegisters = List.of("$t3", "$t4", "$t5", "$t6", "$t7");
+    private final static List<String> savedFloatRegisters = List.of("$f20", "$f22", "$f24", "$f26", "$f28", "$f30");
+    // $f4 - $f8 are scratch registers of the code generator, $f12 and $f14 carry arguments
+    private final static List<String> tempFloatRegisters = List.of("$f10", "$f16", "$f18");
+
     private final FunctionData functionData;
     private final Set<String> staticVariables;
     private final Map<String, Integer> arrays;
+    private final Set<String> floatVariables;
 
-    public IntraBlockAllocator(FunctionData functionData, Map<String, Integer> staticArrays, Set<String> staticVariables) {
+    public IntraBlockAllocator(FunctionData functionData, Map<String, Integer> staticArrays, Set<String> staticVariables, Set<String> floatVariables) {
         this.functionData = functionData;
         this.staticVariables = staticVariables;
         this.arrays = new HashMap<>(staticArrays);
+        this.floatVariables = floatVariables;
     }
 
     @Override
     public MemoryTable allocate() {
-        return null;
+        List<IRInstruction> instructions = functionData.getInstructions();
+        Set<String> floats = FrameLayout.collectFloatVariables(functionData, floatVariables);
+
+        // static variables are shared with callees, so they always stay in memory
+        List<String> candidates = new ArrayList<>(functionData.getScalarVariables());
+        candidates.removeAll(staticVariables);
+        LivenessAnalysis liveness = new LivenessAnalysis(new ControlFlowGraph(instructions), candidates);
+
+        List<BlockAllocation> blockAllocations = new ArrayList<>();
+        Set<String> usedRegisters = new HashSet<>();
+        for (int block = 0; block < liveness.getControlFlowGraph().getBlockCount(); block++) {
+            blockAllocations.add(allocateBlock(liveness, block, floats, usedRegisters));
+        }
+
+        List<String> calleeSavedRegisters = new ArrayList<>(savedIntegerRegisters);
+        calleeSavedRegisters.addAll(savedFloatRegisters);
+        List<String> savedRegisters = FrameLayout.collectSavedRegisters(functionData, calleeSavedRegisters, usedRegisters);
+
+        FrameLayout frameLayout = new FrameLayout(functionData, arrays, floatVariables, savedRegisters);
+
+        return new MemoryTable(frameLayout.getStackVariableOffsets(), frameLayout.getSavedRegisterOffsets(), new HashMap<>(),
+                frameLayout.getArrays(), staticVariables, frameLayout.getFloatVariables(), frameLayout.getFrameSize(), blockAllocations,
+                functionData.getSymbolTable());
+    }
+
+    /**
+     * ranks variables of the block by number of occurrences and gives registers to the most used ones
+     * variables seen only once gain nothing from a register, their load or store just moves to the block boundary
+     */
+    private BlockAllocation allocateBlock(LivenessAnalysis liveness, int block, Set<String> floats, Set<String> usedRegisters) {
+        List<IRInstruction> instructions = liveness.getControlFlowGraph().getInstructions();
+        int start = liveness.getControlFlowGraph().getBlockStart(block);
+        int end = liveness.getControlFlowGraph().getBlockEnd(block);
+        Map<String, Integer> occurrences = new LinkedHashMap<>();
+        Set<String> loadedVariables = new HashSet<>();
+        Set<String> storedVariables = new HashSet<>();
+        boolean hasCall = false;
+
+        for (int i = start; i < end; i++) {
+            IRInstruction instruction = instructions.get(i);
+            InstructionType type = instruction.getInstructionType();
+            if (type == InstructionType.CALL || type == InstructionType.CALLR) hasCall = true;
+
+            for (String used : instruction.getUsedOperands()) {
+                if (liveness.getVariableId(used) == null) continue;
+                occurrences.merge(used, 1, Integer::sum);
+                // value comes from outside of the block only if it is read before written
+                if (!storedVariables.contains(used)) loadedVariables.add(used);
+            }
+
+            String defined = instruction.getDefinedOperand();
+            if (defined != null && liveness.getVariableId(defined) != null) {
+                occurrences.merge(defined, 1, Integer::sum);
+                storedVariables.add(defined);
+            }
+        }
+
+        // temporaries are clobbered by callees, so blocks with calls only get callee saved registers
+        Deque<String> freeIntegerRegisters = new ArrayDeque<>();
+        Deque<String> freeFloatRegisters = new ArrayDeque<>();
+        if (!hasCall) {
+            freeIntegerRegisters.addAll(tempIntegerRegisters);
+            freeFloatRegisters.addAll(tempFloatRegisters);
+        }
+        freeIntegerRegisters.addAll(savedIntegerRegisters);
+        freeFloatRegisters.addAll(savedFloatRegisters);
+
+        List<Map.Entry<String, Integer>> ranking = new ArrayList<>(occurrences.entrySet());
+        ranking.sort((first, second) -> second.getValue() - first.getValue());
+
+        Map<String, String> variableRegisters = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : ranking) {
+            if (entry.getValue() < 2) break;
+            Deque<String> freeRegisters = floats.contains(entry.getKey()) ? freeFloatRegisters : freeIntegerRegisters;
+            if (freeRegisters.isEmpty()) continue;
+            String register = freeRegisters.pollFirst();
+            variableRegisters.put(entry.getKey(), register);
+            usedRegisters.add(register);
+        }
+
+        loadedVariables.retainAll(variableRegisters.keySet());
+        storedVariables.retainAll(variableRegisters.keySet());
+        // values nobody reads after the block never have to reach memory
+        storedVariables.removeIf(variable -> !liveness.isLiveOut(block, variable));
+        return new BlockAllocation(start, end, variableRegisters, loadedVariables, storedVariables);
     }
 }
@@ -0,0 +1,35 @@
+package stats;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * statistics of one compilation: reading the program header and every function in output order
+ */
+public class CompileStatistics {
+    private final List<FunctionStatistics> functions;
+    private long programReadNanos;
+
+    public CompileStatistics() {
+        functions = new ArrayList<>();
+    }
+
+    /**
+     * time spent mapping the IR file and indexing its functions, before any function is compiled
+     */
+    public void setProgramReadNanos(long programReadNanos) {
+        this.programReadNanos = programReadNanos;
+    }
+
+    public long getProgramReadNanos() {
+        return programReadNanos;
+    }
+
+    public void addFunction(FunctionStatistics function) {
+        functions.add(function);
+    }
+
+    public List<FunctionStatistics> getFunctions() {
+        return functions;
+    }
+}
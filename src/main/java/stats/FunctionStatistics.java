@@ -0,0 +1,131 @@
+package stats;
+
+import codegen.mips.MipsInstruction;
+import codegen.mips.Opcode;
+import regalloc.BlockAllocation;
+import regalloc.FunctionData;
+import regalloc.MemoryTable;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * time and allocation per phase and cost of the generated code of one function
+ * phases of a function never overlap, but may run on different threads, every phase is measured on its own thread
+ */
+public class FunctionStatistics {
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private String name;
+    private final long[] phaseNanos;
+    private long allocatedBytes;
+    private long phaseStartNanos;
+    private long phaseStartBytes;
+
+    private int irInstructions;
+    private int mipsInstructions;
+    private int loads;
+    private int stores;
+    private int moves;
+    private int loadImmediates;
+    private int spills;
+    private int frameSize;
+
+    public FunctionStatistics() {
+        phaseNanos = new long[Phase.values().length];
+    }
+
+    public void startPhase() {
+        phaseStartBytes = threads.getCurrentThreadAllocatedBytes();
+        phaseStartNanos = System.nanoTime();
+    }
+
+    public void endPhase(Phase phase) {
+        phaseNanos[phase.ordinal()] += System.nanoTime() - phaseStartNanos;
+        allocatedBytes += threads.getCurrentThreadAllocatedBytes() - phaseStartBytes;
+    }
+
+    /**
+     * records frame size and spills: scalar locals and parameters which did not get a register anywhere in the function
+     */
+    public void recordAllocation(FunctionData data, MemoryTable memoryTable) {
+        name = data.getInstructions().get(0).getOperation().replace(":", "");
+        irInstructions = data.getInstructions().size() - 1;
+        frameSize = memoryTable.getFrameSize();
+        spills = 0;
+        for (String variable : data.getScalarVariables()) {
+            if (memoryTable.isVariableStatic(variable) || memoryTable.isVariableInRegister(variable)) continue;
+            boolean inBlockRegister = false;
+            for (BlockAllocation block : memoryTable.getBlockAllocations()) {
+                if (block.getVariableRegisters().containsKey(variable)) {
+                    inBlockRegister = true;
+                    break;
+                }
+            }
+            if (!inBlockRegister) spills++;
+        }
+    }
+
+    public void recordInstructions(List<MipsInstruction> instructions) {
+        for (MipsInstruction instruction : instructions) {
+            if (instruction.getOpcode() == Opcode.LABEL) continue;
+            switch (instruction.getOpcode()) {
+                case LW, L_S -> loads++;
+                case SW, S_S -> stores++;
+                case MOVE, MOV_S -> moves++;
+                case LI, LI_S -> loadImmediates++;
+                default -> {
+                }
+            }
+            mipsInstructions++;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public int getIrInstructions() {
+        return irInstructions;
+    }
+
+    /**
+     * returns number of emitted instructions, labels excluded
+     */
+    public int getMipsInstructions() {
+        return mipsInstructions;
+    }
+
+    public int getLoads() {
+        return loads;
+    }
+
+    public int getStores() {
+        return stores;
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public int getLoadImmediates() {
+        return loadImmediates;
+    }
+
+    public int getSpills() {
+        return spills;
+    }
+
+    public int getFrameSize() {
+        return frameSize;
+    }
+}
@@ -0,0 +1,13 @@
+package stats;
+
+/**
+ * phases of compiling one function, in the order they run
+ */
+public enum Phase {
+    READ,
+    PARSE,
+    OPTIMIZE,
+    ALLOCATE,
+    CODEGEN,
+    WRITE
+}
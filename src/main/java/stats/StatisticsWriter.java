@@ -0,0 +1,91 @@
+package stats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * renders compile statistics as an aligned table or as JSON, times in milliseconds
+ */
+public class StatisticsWriter {
+    private static final String TABLE_ROW = "%-24s %8s %8s %8s %8s %8s %8s %8s %12s %6s %6s %7s %7s %6s %6s %6s %6s";
+
+    public static List<String> getTextLines(CompileStatistics statistics) {
+        List<String> lines = new ArrayList<>();
+        lines.add("program read: " + millis(statistics.getProgramReadNanos()) + " ms");
+        lines.add(String.format(TABLE_ROW, "function", "read", "parse", "opt", "alloc", "codegen", "write", "total", "allocated",
+                "ir", "mips", "loads", "stores", "moves", "li", "spills", "frame"));
+        long[] phaseTotals = new long[Phase.values().length];
+        long allocatedTotal = 0;
+        int[] countTotals = new int[8];
+        for (FunctionStatistics function : statistics.getFunctions()) {
+            lines.add(row(function.getName(), phases(function), function.getAllocatedBytes(), counts(function)));
+            for (Phase phase : Phase.values()) phaseTotals[phase.ordinal()] += function.getPhaseNanos(phase);
+            allocatedTotal += function.getAllocatedBytes();
+            int[] counts = counts(function);
+            for (int i = 0; i < counts.length; i++) countTotals[i] += counts[i];
+        }
+        lines.add(row("total", phaseTotals, allocatedTotal, countTotals));
+        return lines;
+    }
+
+    public static List<String> getJsonLines(CompileStatistics statistics) {
+        List<String> lines = new ArrayList<>();
+        lines.add("{");
+        lines.add("  \"programReadMs\": " + millis(statistics.getProgramReadNanos()) + ",");
+        lines.add("  \"functions\": [");
+        List<FunctionStatistics> functions = statistics.getFunctions();
+        for (int i = 0; i < functions.size(); i++) {
+            FunctionStatistics function = functions.get(i);
+            StringBuilder object = new StringBuilder("    {\"name\": \"").append(escape(function.getName())).append('"');
+            for (Phase phase : Phase.values()) {
+                object.append(", \"").append(phase.name().toLowerCase(Locale.ROOT)).append("Ms\": ").append(millis(function.getPhaseNanos(phase)));
+            }
+            object.append(", \"allocatedBytes\": ").append(function.getAllocatedBytes())
+                    .append(", \"irInstructions\": ").append(function.getIrInstructions())
+                    .append(", \"mipsInstructions\": ").append(function.getMipsInstructions())
+                    .append(", \"loads\": ").append(function.getLoads())
+                    .append(", \"stores\": ").append(function.getStores())
+                    .append(", \"moves\": ").append(function.getMoves())
+                    .append(", \"li\": ").append(function.getLoadImmediates())
+                    .append(", \"spills\": ").append(function.getSpills())
+                    .append(", \"frameSize\": ").append(function.getFrameSize())
+                    .append(i + 1 < functions.size() ? "}," : "}");
+            lines.add(object.toString());
+        }
+        lines.add("  ]");
+        lines.add("}");
+        return lines;
+    }
+
+    private static long[] phases(FunctionStatistics function) {
+        long[] phases = new long[Phase.values().length];
+        for (Phase phase : Phase.values()) phases[phase.ordinal()] = function.getPhaseNanos(phase);
+        return phases;
+    }
+
+    private static int[] counts(FunctionStatistics function) {
+        return new int[]{function.getIrInstructions(), function.getMipsInstructions(), function.getLoads(), function.getStores(),
+                function.getMoves(), function.getLoadImmediates(), function.getSpills(), function.getFrameSize()};
+    }
+
+    private static String row(String name, long[] phases, long allocatedBytes, int[] counts) {
+        long total = 0;
+        for (long nanos : phases) total += nanos;
+        Object[] columns = new Object[phases.length + counts.length + 3];
+        columns[0] = name;
+        for (int i = 0; i < phases.length; i++) columns[1 + i] = millis(phases[i]);
+        columns[phases.length + 1] = millis(total);
+        columns[phases.length + 2] = String.valueOf(allocatedBytes);
+        for (int i = 0; i < counts.length; i++) columns[phases.length + 3 + i] = String.valueOf(counts[i]);
+        return String.format(TABLE_ROW, columns);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
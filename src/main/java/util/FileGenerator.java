@@ -1,16 +1,25 @@
 package util;
 
-import java.io.FileWriter;
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 public class FileGenerator {
-    public static void generateMipsFile(String path, List<String> instructions) throws IOException {
-        FileWriter myWriter = new FileWriter(path);
-        for (String line : instructions) {
-            myWriter.write(line);
-            myWriter.write('\n');
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public static void generateFile(String path, List<String> lines) throws IOException {
+        try (Writer writer = createWriter(path)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
         }
-        myWriter.close();
+    }
+
+    /**
+     * returns a buffered writer for generated files, callers stream lines into it and close it when done
+     */
+    public static Writer createWriter(String path) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.US_ASCII), BUFFER_SIZE);
     }
 }
@@ -0,0 +1,216 @@
+package util;
+
+import org.apache.commons.cli.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * writes synthetic IR programs of arbitrary size for scale testing
+ * programs are valid input for the parser and the code generator: every variable is initialized before use,
+ * int destinations only read ints, array indices are constants inside the bounds, branches only jump forward
+ * and loops are counted, so generated programs also terminate (calls go to the previous function only)
+ *
+ * usage: java -cp tigerc.jar util.IrGenerator -o big.ir --functions 100 --instructions 10000
+ */
+public class IrGenerator {
+    private static final String[] INT_OPERATIONS = {"add", "sub", "mult", "and", "or"};
+    private static final String[] FLOAT_OPERATIONS = {"add", "sub", "mult"};
+    private static final String[] BRANCHES = {"breq", "brneq", "brlt", "brgt", "brleq", "brgeq"};
+    private static final int LOOP_ITERATIONS = 3;
+
+    private final int functionCount;
+    private final int instructionsPerFunction;
+    private final int variableCount;
+    private final int arraySize;
+    private final double floatRatio;
+    private final double branchDensity;
+    private final Random random;
+
+    private List<String> intVariables;
+    private List<String> floatVariables;
+    private String functionName;
+    private int labelCount;
+
+    /**
+     * @param variableCount scalar locals per function, floatRatio of them are floats
+     * @param floatRatio share of float variables and of instructions which compute floats
+     * @param branchDensity share of instructions which are conditional branches, a quarter of them close a loop
+     */
+    public IrGenerator(int functionCount, int instructionsPerFunction, int variableCount, int arraySize,
+                       double floatRatio, double branchDensity, long seed) {
+        this.functionCount = Math.max(1, functionCount);
+        this.instructionsPerFunction = instructionsPerFunction;
+        this.variableCount = Math.max(2, variableCount);
+        this.arraySize = Math.max(1, arraySize);
+        this.floatRatio = floatRatio;
+        this.branchDensity = branchDensity;
+        this.random = new Random(seed);
+    }
+
+    public void generate(Writer writer) throws IOException {
+        writer.write("start_program generated\n");
+        writer.write("static-int-list: g, G[" + arraySize + "]\n");
+        writer.write("static-float-list: gf\n");
+        for (int function = 0; function < functionCount; function++) {
+            generateFunction(writer, function);
+        }
+    }
+
+    private void generateFunction(Writer writer, int function) throws IOException {
+        boolean isMain = function == functionCount - 1;
+        String name = isMain ? "main" : "f" + function;
+        int floatCount = (int) Math.round(variableCount * floatRatio);
+        int intCount = Math.max(1, variableCount - floatCount);
+        intVariables = new ArrayList<>();
+        floatVariables = new ArrayList<>();
+        for (int i = 0; i < intCount; i++) intVariables.add("v" + i);
+        for (int i = 0; i < floatCount; i++) floatVariables.add("x" + i);
+        functionName = name;
+        labelCount = 0;
+
+        writer.write("start_function " + name + "\n");
+        writer.write(isMain ? "void main():\n" : "int " + name + "(int p0, int p1):\n");
+        writer.write("int-list: " + String.join(", ", intVariables) + ", c, A[" + arraySize + "]\n");
+        writer.write("float-list: " + String.join(", ", floatVariables) + (floatCount > 0 ? ", F[" + arraySize + "]" : "") + "\n");
+        writer.write(name + ":\n");
+
+        for (int i = 0; i < intCount; i++) {
+            writer.write("    assign, v" + i + ", " + (isMain ? String.valueOf(i) : "p" + (i % 2)) + "\n");
+        }
+        for (int i = 0; i < floatCount; i++) {
+            writer.write("    assign, x" + i + ", " + i + ".5\n");
+        }
+        writer.write("    assign, A, " + arraySize + ", 0\n");
+        if (floatCount > 0) writer.write("    assign, F, " + arraySize + ", 0.0\n");
+
+        // forward branches land at pendingLabels once their distance has been written
+        List<String> pendingLabels = new ArrayList<>();
+        List<Integer> pendingDistances = new ArrayList<>();
+        String loopLabel = null;
+        int loopEnd = -1;
+
+        for (int written = 0; written < instructionsPerFunction; written++) {
+            for (int i = pendingLabels.size() - 1; i >= 0; i--) {
+                if (pendingDistances.get(i) <= written) {
+                    writer.write(pendingLabels.remove(i) + ":\n");
+                    pendingDistances.remove(i);
+                }
+            }
+            if (loopLabel != null && written == loopEnd) {
+                writer.write("    add, c, 1, c\n");
+                writer.write("    brlt, c, " + LOOP_ITERATIONS + ", " + loopLabel + "\n");
+                loopLabel = null;
+                continue;
+            }
+            if (random.nextDouble() >= branchDensity) {
+                writer.write(randomInstruction(function, loopLabel != null));
+                continue;
+            }
+            if (loopLabel == null && pendingLabels.isEmpty() && random.nextInt(4) == 0) {
+                // counted loop, it must not contain pending forward branch targets
+                loopLabel = newLabel();
+                loopEnd = Math.min(instructionsPerFunction, written + 2 + random.nextInt(16));
+                writer.write("    assign, c, 0\n");
+                writer.write(loopLabel + ":\n");
+                continue;
+            }
+            String label = newLabel();
+            int target = written + 1 + random.nextInt(8);
+            // branches inside a loop land inside it
+            if (loopLabel != null) target = Math.min(target, loopEnd);
+            pendingLabels.add(label);
+            pendingDistances.add(target);
+            String operation = BRANCHES[random.nextInt(BRANCHES.length)];
+            boolean isFloat = !floatVariables.isEmpty() && random.nextDouble() < floatRatio;
+            writer.write("    " + operation + ", " + operand(false) + ", " + operand(isFloat) + ", " + label + "\n");
+        }
+        // targets of branches inside an open loop are inside it as well, so they go before the loop is closed
+        for (String label : pendingLabels) writer.write(label + ":\n");
+        if (loopLabel != null) {
+            writer.write("    add, c, 1, c\n");
+            writer.write("    brlt, c, " + LOOP_ITERATIONS + ", " + loopLabel + "\n");
+        }
+
+        String result = intVariables.get(random.nextInt(intVariables.size()));
+        writer.write(isMain ? "    call, printi, " + result + "\n    return, \n" : "    return, " + result + "\n");
+        writer.write("end_function " + name + "\n");
+    }
+
+    private String randomInstruction(int function, boolean inLoop) {
+        boolean isFloat = !floatVariables.isEmpty() && random.nextDouble() < floatRatio;
+        String index = String.valueOf(random.nextInt(arraySize));
+        int kind = random.nextInt(20);
+        if (kind < 10) {
+            String[] operations = isFloat ? FLOAT_OPERATIONS : INT_OPERATIONS;
+            return "    " + operations[random.nextInt(operations.length)] + ", " + operand(isFloat) + ", "
+                    + operand(isFloat) + ", " + destination(isFloat) + "\n";
+        }
+        if (kind < 13) return "    assign, " + destination(isFloat) + ", " + operand(isFloat) + "\n";
+        if (kind < 15) return "    array_store, " + (isFloat ? "F" : "A") + ", " + index + ", " + operand(isFloat) + "\n";
+        if (kind < 17) return "    array_load, " + destination(isFloat) + ", " + (isFloat ? "F" : "A") + ", " + index + "\n";
+        if (kind == 17) return "    array_store, G, " + index + ", " + operand(false) + "\n";
+        // calls in loops multiply the run time of the program by the loop count per call level
+        if (kind == 18 && function > 0 && !inLoop) {
+            return "    callr, " + destination(false) + ", f" + (function - 1) + ", " + operand(false) + ", " + operand(false) + "\n";
+        }
+        return isFloat ? "    assign, gf, " + operand(true) + "\n" : "    assign, g, " + operand(false) + "\n";
+    }
+
+    /**
+     * returns a variable or a constant, float operands may also be ints
+     */
+    private String operand(boolean isFloat) {
+        if (random.nextInt(4) == 0) return isFloat ? random.nextInt(100) + ".25" : String.valueOf(random.nextInt(100));
+        if (isFloat && random.nextBoolean()) return floatVariables.get(random.nextInt(floatVariables.size()));
+        return intVariables.get(random.nextInt(intVariables.size()));
+    }
+
+    private String destination(boolean isFloat) {
+        List<String> variables = isFloat ? floatVariables : intVariables;
+        return variables.get(random.nextInt(variables.size()));
+    }
+
+    /**
+     * labels end up in one assembly file, so they are made unique per function
+     */
+    private String newLabel() {
+        return functionName + "_L" + labelCount++;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = new Options();
+        options.addOption("o", "output", true, "ir-file");
+        options.addOption("f", "functions", true, "function-count");
+        options.addOption("n", "instructions", true, "instructions-per-function");
+        options.addOption("v", "variables", true, "variables-per-function");
+        options.addOption("a", "array-size", true, "array-size");
+        options.addOption("r", "float-ratio", true, "float-ratio");
+        options.addOption("b", "branch-density", true, "branch-density");
+        options.addOption("s", "seed", true, "seed");
+
+        CommandLine cmd;
+        try {
+            cmd = new DefaultParser().parse(options, args);
+        } catch (ParseException e) {
+            new HelpFormatter().printHelp("IrGenerator", options);
+            System.exit(1);
+            return;
+        }
+
+        IrGenerator generator = new IrGenerator(
+                Integer.parseInt(cmd.getOptionValue("f", "10")),
+                Integer.parseInt(cmd.getOptionValue("n", "1000")),
+                Integer.parseInt(cmd.getOptionValue("v", "16")),
+                Integer.parseInt(cmd.getOptionValue("a", "16")),
+                Double.parseDouble(cmd.getOptionValue("r", "0.2")),
+                Double.parseDouble(cmd.getOptionValue("b", "0.1")),
+                Long.parseLong(cmd.getOptionValue("s", "1")));
+        try (Writer writer = FileGenerator.createWriter(cmd.getOptionValue("o", "generated.ir"))) {
+            generator.generate(writer);
+        }
+    }
+}
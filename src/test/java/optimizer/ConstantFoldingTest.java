@@ -0,0 +1,64 @@
+package optimizer;
+
+import org.junit.jupiter.api.Test;
+import regalloc.FunctionData;
+
+import java.util.List;
+
+import static optimizer.TestFunctions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConstantFoldingTest {
+
+    private static FunctionData function(String... instructions) {
+        String[] lines = new String[4 + instructions.length];
+        lines[0] = "void main():";
+        lines[1] = "int-list: a";
+        lines[2] = "float-list: x";
+        lines[3] = "main:";
+        System.arraycopy(instructions, 0, lines, 4, instructions.length);
+        return parse(lines);
+    }
+
+    @Test
+    void foldsIntArithmetic() {
+        FunctionData function = function("add, 2, 3, a", "mult, 4, 5, a", "div, 7, 2, a", "and, 6, 3, a");
+        assertTrue(run(new ConstantFolding(), function));
+        assertEquals(List.of("main:", "assign, a, 5", "assign, a, 20", "assign, a, 3", "assign, a, 2"), lines(function));
+    }
+
+    @Test
+    void keepsAddAndSubWhichOverflow() {
+        // the generated add and sub trap on overflow, folding them would wrap around instead
+        FunctionData function = function("add, 2147483647, 1, a", "sub, -2147483648, 1, a");
+        assertFalse(run(new ConstantFolding(), function));
+        assertEquals(List.of("main:", "add, 2147483647, 1, a", "sub, -2147483648, 1, a"), lines(function));
+    }
+
+    @Test
+    void foldsAddAndSubUpToTheIntLimits() {
+        FunctionData function = function("sub, -2147483647, 1, a", "add, 2147483646, 1, a");
+        assertTrue(run(new ConstantFolding(), function));
+        assertEquals(List.of("main:", "assign, a, -2147483648", "assign, a, 2147483647"), lines(function));
+    }
+
+    @Test
+    void foldsMultWithWraparound() {
+        FunctionData function = function("mult, 2147483647, 2, a");
+        assertTrue(run(new ConstantFolding(), function));
+        assertEquals(List.of("main:", "assign, a, -2"), lines(function));
+    }
+
+    @Test
+    void keepsDivisionWhichTraps() {
+        FunctionData function = function("div, 1, 0, a", "div, -2147483648, -1, a");
+        assertFalse(run(new ConstantFolding(), function));
+    }
+
+    @Test
+    void foldsConstantBranches() {
+        FunctionData function = function("breq, 1, 1, taken", "brlt, 2, 1, never", "taken:", "never:", "return");
+        assertTrue(run(new ConstantFolding(), function));
+        assertEquals(List.of("main:", "goto, taken", "taken:", "never:", "return"), lines(function));
+    }
+}
@@ -0,0 +1,45 @@
+package optimizer;
+
+import org.junit.jupiter.api.Test;
+import regalloc.FunctionData;
+
+import java.util.List;
+import java.util.Set;
+
+import static optimizer.TestFunctions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConstantPropagationTest {
+
+    @Test
+    void replacesUsesOfConstants() {
+        FunctionData function = parse("void main():", "int-list: a, b", "float-list:", "main:",
+                "assign, a, 4", "add, a, 1, b", "call, printi, b");
+        assertTrue(run(new ConstantPropagation(), function));
+        assertEquals(List.of("main:", "assign, a, 4", "add, 4, 1, b", "call, printi, b"), lines(function));
+    }
+
+    @Test
+    void keepsVariablesWithDifferentValuesOnJoiningPaths() {
+        FunctionData function = parse("int f(int p):", "int-list: a", "float-list:", "f:",
+                "assign, a, 1", "breq, p, 0, join", "assign, a, 2", "join:", "return, a");
+        assertFalse(run(new ConstantPropagation(), function));
+        assertEquals("return, a", lines(function).get(5));
+    }
+
+    @Test
+    void propagatesAValueEqualOnJoiningPaths() {
+        FunctionData function = parse("int f(int p):", "int-list: a", "float-list:", "f:",
+                "assign, a, 1", "breq, p, 0, join", "assign, a, 1", "join:", "return, a");
+        assertTrue(run(new ConstantPropagation(), function));
+        assertEquals("return, 1", lines(function).get(5));
+    }
+
+    @Test
+    void leavesStaticsToTheirCallees() {
+        FunctionData function = parse("void main():", "int-list:", "float-list:", "main:",
+                "assign, g, 3", "call, f, 0", "call, printi, g");
+        assertFalse(new ConstantPropagation().run(function, Set.of("g"), Set.of()));
+        assertEquals("call, printi, g", lines(function).get(3));
+    }
+}
@@ -0,0 +1,55 @@
+package optimizer;
+
+import org.junit.jupiter.api.Test;
+import regalloc.FunctionData;
+
+import java.util.List;
+
+import static optimizer.TestFunctions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CopyPropagationTest {
+
+    private static void runToFixedPoint(FunctionData function) {
+        CopyPropagation pass = new CopyPropagation();
+        for (int round = 0; round < 8; round++) {
+            if (!run(pass, function)) return;
+        }
+        fail("copy propagation did not stop changing the function");
+    }
+
+    @Test
+    void followsACopyChainToItsSource() {
+        FunctionData function = parse("void main():", "int-list: a, b, c, d", "float-list:", "main:",
+                "callr, a, geti", "assign, b, a", "assign, c, b", "add, c, 1, d", "call, printi, d");
+        runToFixedPoint(function);
+        assertEquals(List.of("main:", "callr, a, geti", "assign, b, a", "assign, c, a", "add, a, 1, d", "call, printi, d"),
+                lines(function));
+    }
+
+    @Test
+    void stopsAtACopyWhoseSourceIsRedefined() {
+        // b still holds the old a after a is written, so uses of c may read b but not a
+        FunctionData function = parse("void main():", "int-list: a, b, c, d", "float-list:", "main:",
+                "callr, a, geti", "assign, b, a", "assign, c, b", "assign, a, 5", "add, c, 1, d", "call, printi, d");
+        runToFixedPoint(function);
+        assertEquals(List.of("main:", "callr, a, geti", "assign, b, a", "assign, c, a", "assign, a, 5", "add, b, 1, d",
+                "call, printi, d"), lines(function));
+    }
+
+    @Test
+    void keepsCopiesMadeOnOnlyOneJoiningPath() {
+        FunctionData function = parse("int f(int p, int q):", "int-list: a", "float-list:", "f:",
+                "assign, a, q", "breq, p, 0, join", "assign, a, p", "join:", "return, a");
+        runToFixedPoint(function);
+        assertEquals("return, a", lines(function).get(5));
+    }
+
+    @Test
+    void keepsCopiesBetweenTypes() {
+        // the assignment converts, so the float does not stand in for the int
+        FunctionData function = parse("void main():", "int-list: a", "float-list: x", "main:",
+                "assign, x, 2.5", "assign, a, x", "call, printi, a");
+        assertFalse(run(new CopyPropagation(), function));
+    }
+}
@@ -0,0 +1,118 @@
+package optimizer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import parser.Parser;
+import regalloc.FunctionData;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static optimizer.TestFunctions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InlinerTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * returns inliner for the functions of a program with a static int g, given as lines of IR
+     */
+    private Inliner inliner(String... functions) throws IOException {
+        Path file = directory.resolve("program.ir");
+        StringBuilder program = new StringBuilder("start_program test\nstatic-int-list: g\nstatic-float-list:\n");
+        for (String line : functions) program.append(line).append('\n');
+        program.append("end_program test\n");
+        Files.writeString(file, program);
+        return new Inliner(new CallGraph(new Parser(file.toString()), Inliner.DEFAULT_BUDGET), Inliner.DEFAULT_BUDGET);
+    }
+
+    private static Set<String> findDuplicateLabels(FunctionData function) {
+        Set<String> labels = new HashSet<>();
+        Set<String> duplicates = new HashSet<>();
+        for (String line : lines(function)) {
+            if (line.endsWith(":") && !labels.add(line)) duplicates.add(line);
+        }
+        return duplicates;
+    }
+
+    @Test
+    void renamesLocalsAndLabelsPerCallSite() throws IOException {
+        Inliner inliner = inliner("start_function abs", "int abs(int a):", "int-list: u", "float-list:", "abs:",
+                "brgeq, a, 0, positive", "sub, 0, a, a", "positive:", "assign, u, a", "return, u", "end_function");
+        FunctionData main = parse("void main():", "int-list: x, y", "float-list:", "main:",
+                "callr, x, abs, -3", "callr, y, abs, x", "call, printi, y", "return");
+
+        assertTrue(run(inliner, main));
+        assertEquals(List.of("main:",
+                "assign, _inline0_a, -3", "brgeq, _inline0_a, 0, _inline_main_0_positive", "sub, 0, _inline0_a, _inline0_a",
+                "_inline_main_0_positive:", "assign, _inline0_u, _inline0_a", "assign, x, _inline0_u", "_inline_main_0_end:",
+                "assign, _inline1_a, x", "brgeq, _inline1_a, 0, _inline_main_1_positive", "sub, 0, _inline1_a, _inline1_a",
+                "_inline_main_1_positive:", "assign, _inline1_u, _inline1_a", "assign, y, _inline1_u", "_inline_main_1_end:",
+                "call, printi, y", "return"), lines(main));
+        assertTrue(main.getLocalIntVariables().containsAll(List.of("_inline0_a", "_inline0_u", "_inline1_a", "_inline1_u")));
+    }
+
+    @Test
+    void jumpsPastTheBodyFromEarlyReturns() throws IOException {
+        Inliner inliner = inliner("start_function sign", "int sign(int a):", "int-list:", "float-list:", "sign:",
+                "brgeq, a, 0, positive", "return, -1", "positive:", "return, 1", "end_function");
+        FunctionData main = parse("void main():", "int-list: x", "float-list:", "main:",
+                "callr, x, sign, 4", "call, printi, x", "return");
+
+        assertTrue(run(inliner, main));
+        assertEquals(List.of("main:", "assign, _inline0_a, 4", "brgeq, _inline0_a, 0, _inline_main_0_positive",
+                "assign, x, -1", "goto, _inline_main_0_end", "_inline_main_0_positive:", "assign, x, 1", "_inline_main_0_end:",
+                "call, printi, x", "return"), lines(main));
+    }
+
+    @Test
+    void keepsLabelsUniqueWhenCalleesLeaveNoLocals() throws IOException {
+        // a inlined twice leaves only labels, inlining b into both copies in the next run must not reuse their sites
+        Inliner inliner = inliner(
+                "start_function b", "void b():", "int-list:", "float-list:", "b:", "mult, g, 2, g", "return", "end_function",
+                "start_function a", "void a():", "int-list:", "float-list:", "a:", "call, b", "add, g, 3, g", "return", "end_function");
+        FunctionData main = parse("void main():", "int-list:", "float-list:", "main:",
+                "assign, g, 1", "call, a", "call, a", "call, printi, g", "return");
+
+        assertTrue(run(inliner, main));
+        assertTrue(run(inliner, main));
+        assertFalse(run(inliner, main));
+        assertEquals(Set.of(), findDuplicateLabels(main));
+        assertFalse(lines(main).stream().anyMatch(line -> line.startsWith("call, a") || line.startsWith("call, b")));
+    }
+
+    @Test
+    void keepsRecursiveCalls() throws IOException {
+        Inliner inliner = inliner("start_function down", "int down(int a):", "int-list: b", "float-list:", "down:",
+                "brleq, a, 0, done", "sub, a, 1, b", "callr, a, down, b", "done:", "return, a", "end_function");
+        FunctionData main = parse("void main():", "int-list: x", "float-list:", "main:",
+                "callr, x, down, 3", "call, printi, x", "return");
+
+        assertFalse(run(inliner, main));
+    }
+
+    @Test
+    void keepsCallsWhichWouldConvertAFloatToAnInt() throws IOException {
+        Inliner inliner = inliner("start_function twice", "int twice(int a):", "int-list: b", "float-list:", "twice:",
+                "add, a, a, b", "return, b", "end_function");
+        FunctionData main = parse("void main():", "int-list: x", "float-list: f", "main:",
+                "assign, f, 1.5", "callr, x, twice, f", "call, printi, x", "return");
+
+        assertFalse(run(inliner, main));
+    }
+
+    @Test
+    void keepsCallsWhenTheCallerShadowsAStaticOfTheCallee() throws IOException {
+        Inliner inliner = inliner("start_function bump", "void bump():", "int-list:", "float-list:", "bump:",
+                "add, g, 1, g", "return", "end_function");
+        FunctionData main = parse("void main():", "int-list: g", "float-list:", "main:",
+                "assign, g, 1", "call, bump", "call, printi, g", "return");
+
+        assertFalse(run(inliner, main));
+    }
+}
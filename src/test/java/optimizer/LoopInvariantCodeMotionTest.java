@@ -0,0 +1,55 @@
+package optimizer;
+
+import org.junit.jupiter.api.Test;
+import regalloc.FunctionData;
+
+import java.util.List;
+
+import static optimizer.TestFunctions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoopInvariantCodeMotionTest {
+
+    @Test
+    void retargetsJumpsFromOutsideTheLoopToThePreheader() {
+        FunctionData function = parse("int f(int p, int q):", "int-list: i, t, s", "float-list:", "f:",
+                "assign, i, 0", "assign, s, 0", "brgt, p, 10, loop", "assign, s, 1", "goto, loop",
+                "loop:", "mult, p, q, t", "add, s, t, s", "add, i, 1, i", "brlt, i, 10, loop",
+                "return, s");
+        assertTrue(run(new LoopInvariantCodeMotion(), function));
+        assertEquals(List.of("f:",
+                "assign, i, 0", "assign, s, 0", "brgt, p, 10, _preheader_f_loop", "assign, s, 1", "goto, _preheader_f_loop",
+                "_preheader_f_loop:", "mult, p, q, t",
+                "loop:", "add, s, t, s", "add, i, 1, i", "brlt, i, 10, loop",
+                "return, s"), lines(function));
+    }
+
+    @Test
+    void placesThePreheaderOnTheFallThroughPathWithoutALabel() {
+        FunctionData function = parse("int f(int p):", "int-list: i, t, s", "float-list:", "f:",
+                "assign, i, 0", "assign, s, 0",
+                "loop:", "add, p, 1, t", "add, s, t, s", "add, i, 1, i", "brlt, i, 10, loop",
+                "return, s");
+        assertTrue(run(new LoopInvariantCodeMotion(), function));
+        assertEquals(List.of("f:", "assign, i, 0", "assign, s, 0", "add, p, 1, t",
+                "loop:", "add, s, t, s", "add, i, 1, i", "brlt, i, 10, loop", "return, s"), lines(function));
+    }
+
+    @Test
+    void keepsVariablesAssignedTwiceInTheLoop() {
+        FunctionData function = parse("int f(int p):", "int-list: i, t, s", "float-list:", "f:",
+                "assign, i, 0", "assign, s, 0",
+                "loop:", "add, p, 1, t", "add, s, t, s", "assign, t, 0", "add, i, 1, i", "brlt, i, 10, loop",
+                "return, s");
+        assertFalse(run(new LoopInvariantCodeMotion(), function));
+    }
+
+    @Test
+    void keepsLoadsOfArraysTheLoopStoresTo() {
+        FunctionData function = parse("int f(int p):", "int-list: i, t, s, A[4]", "float-list:", "f:",
+                "assign, i, 0", "assign, s, 0",
+                "loop:", "array_load, t, A, 0", "add, s, t, s", "array_store, A, 0, s", "add, i, 1, i", "brlt, i, 10, loop",
+                "return, s");
+        assertFalse(run(new LoopInvariantCodeMotion(), function));
+    }
+}
@@ -0,0 +1,38 @@
+package optimizer;
+
+import org.junit.jupiter.api.Test;
+import regalloc.FunctionData;
+
+import java.util.List;
+import java.util.Set;
+
+import static optimizer.TestFunctions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PassManagerTest {
+
+    private static FunctionData function() {
+        return parse("void main():", "int-list: a, b, c", "float-list:", "main:",
+                "assign, a, 6", "mult, a, 7, b", "add, b, 0, c", "brgt, c, 100, skip", "call, printi, c", "skip:", "return");
+    }
+
+    @Test
+    void levelZeroLeavesTheFunctionAsItIs() {
+        FunctionData function = function();
+        List<String> before = lines(function);
+        PassManager.forLevel(0).run(function, Set.of(), Set.of());
+        assertEquals(before, lines(function));
+    }
+
+    @Test
+    void passesEnableEachOtherUntilNothingChanges() {
+        FunctionData function = function();
+        PassManager.forLevel(1).run(function, Set.of(), Set.of());
+        assertEquals(List.of("main:", "call, printi, 42", "skip:", "return"), lines(function));
+    }
+
+    @Test
+    void rejectsUnknownLevels() {
+        assertThrows(IllegalArgumentException.class, () -> PassManager.forLevel(PassManager.MAX_LEVEL + 1));
+    }
+}
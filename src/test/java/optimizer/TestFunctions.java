@@ -0,0 +1,41 @@
+package optimizer;
+
+import ir_instructions.IRInstruction;
+import parser.FunctionParser;
+import regalloc.FunctionData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * hand written IR functions for the pass tests
+ */
+final class TestFunctions {
+
+    private TestFunctions() {
+    }
+
+    /**
+     * returns the parsed function of lines from the signature on, as they follow start_function in an IR file
+     */
+    static FunctionData parse(String... lines) {
+        List<String> functionLines = new ArrayList<>();
+        functionLines.add("start_function");
+        functionLines.addAll(List.of(lines));
+        return new FunctionParser(functionLines).getFunctionData();
+    }
+
+    /**
+     * returns instructions of the function as IR lines, the function label included
+     */
+    static List<String> lines(FunctionData function) {
+        List<String> lines = new ArrayList<>();
+        for (IRInstruction instruction : function.getInstructions()) lines.add(instruction.toIrString());
+        return lines;
+    }
+
+    static boolean run(Pass pass, FunctionData function) {
+        return pass.run(function, Set.of(), function.getFloatVariables());
+    }
+}